@@ -0,0 +1,24 @@
+package com.openclassrooms.mddapi.DTO;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import lombok.Data;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Data Transfer Object used by controllers to send one page of the comments of a
+ * post to the front-end.
+ *
+ * <p>Comments are sorted from the oldest to the most recent. The cursor points after
+ * the last comment of the page and stays valid once the end is reached, so the
+ * client can use it to fetch comments written later; {@code hasMore} tells whether
+ * newer comments, following this page, remain to be read right away.</p>
+ */
+@Data
+public class CommentPageDto {
+    @JsonProperty("comments")
+    private List<CommentDto> commentsDto = new ArrayList<>();
+    private String nextCursor;
+    private boolean hasMore;
+}
@@ -0,0 +1,26 @@
+package com.openclassrooms.mddapi.DTO;
+
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+/**
+ * Data Transfer Object describing one line of a bulk import file.
+ *
+ * <p>{@code type} is {@code post} or {@code comment}. A post may carry a {@code ref}, unique
+ * within the file, that later comments use as {@code postRef}; a comment may instead target an
+ * existing post with {@code postId}. Timestamps default to the import time when omitted.</p>
+ */
+@Data
+public class ImportRecordDto {
+    private String type;
+    private String ref;
+    private String postRef;
+    private Long postId;
+    private Long userId;
+    private Long subjectId;
+    private String title;
+    private String content;
+    private String message;
+    private LocalDateTime createdAt;
+}
@@ -0,0 +1,18 @@
+package com.openclassrooms.mddapi.DTO;
+
+import lombok.Data;
+
+/**
+ * Data Transfer Object used by controllers to send the outcome of a bulk import
+ * to the client.
+ *
+ * <p>Contains the number of inserted posts and comments, the elapsed time and the
+ * resulting throughput in rows per second.</p>
+ */
+@Data
+public class ImportReportDto {
+    private long posts;
+    private long comments;
+    private long elapsedMillis;
+    private long rowsPerSecond;
+}
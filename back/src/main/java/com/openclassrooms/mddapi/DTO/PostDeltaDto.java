@@ -0,0 +1,23 @@
+package com.openclassrooms.mddapi.DTO;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import lombok.Data;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Data Transfer Object used by controllers to send the subscribed posts created or
+ * updated since a high-water mark held by the front-end.
+ *
+ * <p>Posts are sorted from the oldest to the most recent change. The returned
+ * high-water mark must be sent back on the next poll; {@code hasMore} tells the
+ * client to poll again immediately because the delta was truncated.</p>
+ */
+@Data
+public class PostDeltaDto {
+    @JsonProperty("posts")
+    private List<PostListDto> postsListDto = new ArrayList<>();
+    private String highWaterMark;
+    private boolean hasMore;
+}
@@ -12,7 +12,7 @@ import java.util.List;
  * between the API and the front-end.
  *
  * <p>Contains post metadata, references to the author and subject,
- * and a list of comments. Designed for serialization/deserialization in REST
+ * and the first page of comments with the cursor to read the following ones. Designed for serialization/deserialization in REST
  * endpoints. Timestamps are set by the server; input validation and persistence
  * are handled by other layers.</p>
  */
@@ -29,4 +29,6 @@ public class PostDto {
     private SubjectDto subjectDto;
     @JsonProperty("comments")
     private List<CommentDto> commentsDto = new ArrayList<>();;
+    private String commentsCursor;
+    private boolean hasMoreComments;
 }
@@ -2,24 +2,42 @@ package com.openclassrooms.mddapi.DTO;
 
 import com.fasterxml.jackson.annotation.JsonProperty;
 import lombok.Data;
+import lombok.NoArgsConstructor;
 
 import java.time.LocalDateTime;
 
 /**
  * Data Transfer Object used by controllers to send a concise post representation
- * to the front-end (e.g. for lists). Includes core post fields and
+ * to the front-end (e.g. for lists). Includes core post fields, a bounded excerpt
+ * of the content instead of the full text, and
  * references to the author and subject for efficient serialization in REST
  * endpoints. Timestamps are set by the server; additional validation is handled
  * by other layers.
+ *
+ * <p>The flat constructor is used by JPQL constructor expressions so the feed can be
+ * projected straight from the query result without loading managed entities.</p>
  */
 @Data
+@NoArgsConstructor
 public class PostListDto {
     private Long id;
     private String title;
-    private String content;
+    private String excerpt;
     private LocalDateTime updatedAt;
+    private long commentCount;
     @JsonProperty("user")
     private UserForPostListDto userForPostListDto;
     @JsonProperty("subject")
     private SubjectForPostListDto subjectForPostListDtoList;
+
+    public PostListDto(Long id, String title, String excerpt, LocalDateTime updatedAt, long commentCount,
+                       Long userId, String userName, Long subjectId) {
+        this.id = id;
+        this.title = title;
+        this.excerpt = excerpt;
+        this.updatedAt = updatedAt;
+        this.commentCount = commentCount;
+        this.userForPostListDto = new UserForPostListDto(userId, userName);
+        this.subjectForPostListDtoList = new SubjectForPostListDto(subjectId);
+    }
 }
@@ -0,0 +1,24 @@
+package com.openclassrooms.mddapi.DTO;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import lombok.Data;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Data Transfer Object used by controllers to send one page of the subscribed
+ * posts feed to the front-end.
+ *
+ * <p>Contains the posts of the page, already sorted by the server, and an opaque
+ * cursor to request the following page. The cursor is {@code null} when the
+ * last page has been reached. The first page also carries the high-water mark
+ * from which the client can poll for newer posts.</p>
+ */
+@Data
+public class PostPageDto {
+    @JsonProperty("posts")
+    private List<PostListDto> postsListDto = new ArrayList<>();
+    private String nextCursor;
+    private String highWaterMark;
+}
@@ -1,7 +1,9 @@
 package com.openclassrooms.mddapi.DTO;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
 import com.fasterxml.jackson.annotation.JsonProperty;
 import lombok.Data;
+import lombok.NoArgsConstructor;
 
 import java.util.ArrayList;
 import java.util.List;
@@ -13,14 +15,29 @@ import java.util.List;
  * <p>Contains subject data and collections of related posts and
  * subscriptions for efficient serialization in REST endpoints. Input validation
  * and persistence are handled by other layers.</p>
+ *
+ * <p>{@code isSubscribed} is only set, and serialized, when the subjects are listed for a
+ * given user. The flat constructor is used by the JPQL constructor expression of that listing.</p>
  */
 @Data
+@NoArgsConstructor
 public class SubjectDto {
     private Long id;
     private String title;
     private String description;
+    private long subscriberCount;
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private Boolean isSubscribed;
     @JsonProperty("posts")
     private List<PostDto> postsDto = new ArrayList<>();
     @JsonProperty("subscriptions")
     private List<SubscriptionDto> subscriptionsDto = new ArrayList<>();
+
+    public SubjectDto(Long id, String title, String description, long subscriberCount, Boolean isSubscribed) {
+        this.id = id;
+        this.title = title;
+        this.description = description;
+        this.subscriberCount = subscriberCount;
+        this.isSubscribed = isSubscribed;
+    }
 }
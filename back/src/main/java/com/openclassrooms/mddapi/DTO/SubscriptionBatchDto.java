@@ -0,0 +1,19 @@
+package com.openclassrooms.mddapi.DTO;
+
+import lombok.Data;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Data Transfer Object used by controllers to receive a batch of subscription
+ * changes from the front-end.
+ *
+ * <p>Contains the identifiers of the subjects to subscribe to and of those to
+ * unsubscribe from, applied together in one transaction. Either list may be empty.</p>
+ */
+@Data
+public class SubscriptionBatchDto {
+    private List<Long> subscribe = new ArrayList<>();
+    private List<Long> unsubscribe = new ArrayList<>();
+}
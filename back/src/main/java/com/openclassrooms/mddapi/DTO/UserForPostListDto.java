@@ -1,6 +1,8 @@
 package com.openclassrooms.mddapi.DTO;
 
+import lombok.AllArgsConstructor;
 import lombok.Data;
+import lombok.NoArgsConstructor;
 
 /**
  * Data Transfer Object used by controllers to include a user
@@ -11,6 +13,8 @@ import lombok.Data;
  * persistence are handled by other layers.</p>
  */
 @Data
+@NoArgsConstructor
+@AllArgsConstructor
 public class UserForPostListDto {
     private Long id;
     private String name;
@@ -0,0 +1,172 @@
+package com.openclassrooms.mddapi.caches;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.openclassrooms.mddapi.DTO.PostPageDto;
+import com.openclassrooms.mddapi.events.PostCreatedEvent;
+import com.openclassrooms.mddapi.events.SubscriptionChangedEvent;
+import com.openclassrooms.mddapi.events.UserUpdatedEvent;
+import com.openclassrooms.mddapi.repositories.SubscriptionRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Bounded in-process cache of the first page of each user's subscribed posts feed.
+ *
+ * <p>Entries are keyed by user id and evicted by size ({@code orion.cache.feed.maximum-size})
+ * and by age ({@code orion.cache.feed.expire-after-write}). A user's entry is invalidated once a
+ * post is committed in a subject they follow and once they change their subscriptions, and every
+ * entry is invalidated once an author is renamed. Hit, miss and eviction counts are published to
+ * Micrometer under the cache name {@code feed}.</p>
+ *
+ * <p>A page read before an invalidation must not be stored after it. Every invalidation first bumps
+ * the generation of the users it concerns, and a page is only stored if the generation of its user is
+ * still the one read before the page was loaded. Generations are kept in a fixed array of stripes
+ * shared by several users, so an invalidation may needlessly skip storing another user's page but
+ * memory does not grow with the number of users.</p>
+ */
+@Component
+public class FeedCache {
+    private static final int GENERATION_STRIPES = 1024;
+
+    private final Cache<Long, CachedFeedPage> cache;
+    private final AtomicLongArray generations = new AtomicLongArray(GENERATION_STRIPES);
+    private final SubscriptionRepository subscriptionRepository;
+
+    /**
+     * Construct a new {@code FeedCache}.
+     *
+     * @param subscriptionRepository repository used to find the subscribers of a subject on invalidation
+     * @param meterRegistry registry receiving the cache statistics
+     * @param maximumSize maximum number of users whose feed page is kept
+     * @param expireAfterWrite maximum age of a cached page
+     */
+    public FeedCache(SubscriptionRepository subscriptionRepository,
+                     MeterRegistry meterRegistry,
+                     @Value("${orion.cache.feed.maximum-size:10000}") long maximumSize,
+                     @Value("${orion.cache.feed.expire-after-write:5m}") Duration expireAfterWrite) {
+        this.subscriptionRepository = subscriptionRepository;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(expireAfterWrite)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "feed");
+    }
+
+    /**
+     * Return the cached first feed page of a user.
+     *
+     * @param userId identifier of the user
+     * @param pageSize page size requested by the client
+     * @return the cached {@code PostPageDto}, or {@code null} if absent or cached with another page size
+     */
+    public PostPageDto get(Long userId, int pageSize) {
+        CachedFeedPage cachedFeedPage = cache.getIfPresent(userId);
+        if (cachedFeedPage == null || cachedFeedPage.pageSize() != pageSize) {
+            return null;
+        }
+        return cachedFeedPage.page();
+    }
+
+    /**
+     * Return the current generation of a user's entry, to be read before loading the page to store.
+     *
+     * @param userId identifier of the user
+     * @return the generation to pass to {@link #put}
+     */
+    public long generation(Long userId) {
+        return generations.get(stripe(userId));
+    }
+
+    /**
+     * Store the first feed page of a user, unless the entry was invalidated since the page was loaded.
+     *
+     * @param userId identifier of the user
+     * @param pageSize page size requested by the client
+     * @param page the page to cache
+     * @param generation generation of the entry read before the page was loaded
+     */
+    public void put(Long userId, int pageSize, PostPageDto page, long generation) {
+        // checked under the entry lock, which an invalidation takes after bumping the generation
+        cache.asMap().compute(userId, (key, current) -> generations.get(stripe(userId)) == generation
+                ? new CachedFeedPage(pageSize, page)
+                : current);
+    }
+
+    /**
+     * Drop the cached feed page of a user.
+     *
+     * @param userId identifier of the user
+     */
+    public void invalidateUser(Long userId) {
+        generations.incrementAndGet(stripe(userId));
+        cache.invalidate(userId);
+    }
+
+    /**
+     * Drop the cached feed pages of several users.
+     *
+     * @param userIds identifiers of the users
+     */
+    public void invalidateUsers(Collection<Long> userIds) {
+        userIds.forEach(userId -> generations.incrementAndGet(stripe(userId)));
+        cache.invalidateAll(userIds);
+    }
+
+    /**
+     * Drop every cached feed page, after changes too wide to invalidate user by user.
+     */
+    public void invalidateAll() {
+        for (int i = 0; i < GENERATION_STRIPES; i++) {
+            generations.incrementAndGet(i);
+        }
+        cache.invalidateAll();
+    }
+
+    /**
+     * Invalidate the feed of every subscriber of the subject of a committed post.
+     *
+     * @param event the event describing the created post
+     */
+    @TransactionalEventListener
+    public void onPostCreated(PostCreatedEvent event) {
+        invalidateUsers(subscriptionRepository.findUserIdsBySubjectId(event.getSubjectId()));
+    }
+
+    /**
+     * Invalidate the feed of a user whose subscriptions changed.
+     *
+     * @param event the event describing the subscription change
+     */
+    @TransactionalEventListener
+    public void onSubscriptionChanged(SubscriptionChangedEvent event) {
+        invalidateUser(event.getUserId());
+    }
+
+    /**
+     * Invalidate every feed once an author is renamed, the name being shown with each post.
+     *
+     * @param event the event describing the updated user
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onUserUpdated(UserUpdatedEvent event) {
+        if (event.isNameChanged()) {
+            invalidateAll();
+        }
+    }
+
+    private static int stripe(Long userId) {
+        return Long.hashCode(userId) & (GENERATION_STRIPES - 1);
+    }
+
+    private record CachedFeedPage(int pageSize, PostPageDto page) {
+    }
+}
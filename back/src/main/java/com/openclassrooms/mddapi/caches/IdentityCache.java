@@ -0,0 +1,204 @@
+package com.openclassrooms.mddapi.caches;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.openclassrooms.mddapi.events.UserUpdatedEvent;
+import com.openclassrooms.mddapi.models.User;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Optional;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Bounded in-process cache resolving login identifiers and user ids to a slim user profile.
+ *
+ * <p>Emails and names map to a user id, and user ids map to a {@link UserProfile}. Identifiers are
+ * keyed exactly as given, the caller normalizing them once and querying the database with that same
+ * value, and a mapping is only trusted while the profile it leads to still carries the identifier.
+ * Identifiers that match no user are remembered for
+ * {@code orion.cache.identity.unknown-expire-after-write}, so that repeated attempts with unknown
+ * identifiers do not reach the database. Known entries are bounded by
+ * {@code orion.cache.identity.maximum-size} and expire after
+ * {@code orion.cache.identity.expire-after-write}. {@code UserService} refreshes the entries of a
+ * user when it is saved or updated, transactional updates being applied once committed. Statistics are published to Micrometer under the cache names
+ * {@code identityIds}, {@code identityProfiles} and {@code identityUnknown}.</p>
+ */
+@Component
+public class IdentityCache {
+    private static final String EMAIL_KEY = "email:";
+    private static final String NAME_KEY = "name:";
+
+    private final Cache<String, Long> userIdsByIdentifier;
+    private final Cache<Long, UserProfile> profilesById;
+    private final Cache<String, Boolean> unknownIdentifiers;
+
+    /**
+     * Construct a new {@code IdentityCache}.
+     *
+     * @param meterRegistry registry receiving the cache statistics
+     * @param maximumSize maximum number of users and of unknown identifiers kept
+     * @param expireAfterWrite maximum age of a known identifier or profile
+     * @param unknownExpireAfterWrite maximum age of an unknown identifier
+     */
+    public IdentityCache(MeterRegistry meterRegistry,
+                         @Value("${orion.cache.identity.maximum-size:100000}") long maximumSize,
+                         @Value("${orion.cache.identity.expire-after-write:30m}") Duration expireAfterWrite,
+                         @Value("${orion.cache.identity.unknown-expire-after-write:1m}") Duration unknownExpireAfterWrite) {
+        // each user is reachable by its email and its name
+        this.userIdsByIdentifier = Caffeine.newBuilder()
+                .maximumSize(2 * maximumSize)
+                .expireAfterWrite(expireAfterWrite)
+                .recordStats()
+                .build();
+        this.profilesById = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(expireAfterWrite)
+                .recordStats()
+                .build();
+        this.unknownIdentifiers = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(unknownExpireAfterWrite)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, userIdsByIdentifier, "identityIds");
+        CaffeineCacheMetrics.monitor(meterRegistry, profilesById, "identityProfiles");
+        CaffeineCacheMetrics.monitor(meterRegistry, unknownIdentifiers, "identityUnknown");
+    }
+
+    /**
+     * Resolve an email to a user profile, loading the user on a miss.
+     *
+     * @param email normalized email to resolve
+     * @param loader lookup of the user by this exact email in the database
+     * @return the {@code UserProfile}, or {@code Optional.empty()} if no user has this email
+     */
+    public Optional<UserProfile> getByEmail(String email, Supplier<Optional<User>> loader) {
+        return getByIdentifier(EMAIL_KEY + email, email, UserProfile::email, loader);
+    }
+
+    /**
+     * Resolve a name to a user profile, loading the user on a miss.
+     *
+     * @param name normalized name to resolve
+     * @param loader lookup of the user by this exact name in the database
+     * @return the {@code UserProfile}, or {@code Optional.empty()} if no user has this name
+     */
+    public Optional<UserProfile> getByName(String name, Supplier<Optional<User>> loader) {
+        return getByIdentifier(NAME_KEY + name, name, UserProfile::name, loader);
+    }
+
+    /**
+     * Resolve a user id to a user profile, loading the user on a miss.
+     *
+     * @param userId identifier of the user
+     * @param loader lookup of the user by id in the database
+     * @return the {@code UserProfile}, or {@code Optional.empty()} if the user does not exist
+     */
+    public Optional<UserProfile> getById(Long userId, Function<Long, Optional<User>> loader) {
+        UserProfile userProfile = profilesById.getIfPresent(userId);
+        if (userProfile != null) {
+            return Optional.of(userProfile);
+        }
+        return loader.apply(userId).map(this::put);
+    }
+
+    /**
+     * Store the current state of a user, replacing its previous identifiers and forgetting
+     * that its new identifiers were unknown.
+     *
+     * @param user the persisted user
+     * @return the cached {@code UserProfile}
+     */
+    public UserProfile put(User user) {
+        return store(new UserProfile(user.getId(), user.getName(), user.getEmail(), user.getPassword(),
+                user.getCreatedAt(), user.getUpdatedAt()));
+    }
+
+    /**
+     * Store the profile of a user once its transactional update is committed.
+     *
+     * @param event the event describing the updated user
+     */
+    @TransactionalEventListener
+    public void onUserUpdated(UserUpdatedEvent event) {
+        store(new UserProfile(event.getUserId(), event.getName(), event.getEmail(), event.getPasswordHash(),
+                event.getCreatedAt(), event.getUpdatedAt()));
+    }
+
+    /**
+     * Drop the profile of a user and the identifiers pointing to it. Identifiers whose profile was
+     * already evicted are left behind, and dropped when a lookup finds they no longer match.
+     *
+     * @param userId identifier of the user
+     */
+    public void invalidate(Long userId) {
+        UserProfile previous = profilesById.getIfPresent(userId);
+        if (previous != null) {
+            userIdsByIdentifier.invalidate(EMAIL_KEY + previous.email());
+            userIdsByIdentifier.invalidate(NAME_KEY + previous.name());
+        }
+        profilesById.invalidate(userId);
+    }
+
+    private UserProfile store(UserProfile userProfile) {
+        invalidate(userProfile.id());
+
+        String emailKey = EMAIL_KEY + userProfile.email();
+        String nameKey = NAME_KEY + userProfile.name();
+        profilesById.put(userProfile.id(), userProfile);
+        userIdsByIdentifier.put(emailKey, userProfile.id());
+        userIdsByIdentifier.put(nameKey, userProfile.id());
+        unknownIdentifiers.invalidate(emailKey);
+        unknownIdentifiers.invalidate(nameKey);
+        return userProfile;
+    }
+
+    private Optional<UserProfile> getByIdentifier(String key, String identifier, Function<UserProfile, String> field,
+                                                  Supplier<Optional<User>> loader) {
+        if (unknownIdentifiers.getIfPresent(key) != null) {
+            return Optional.empty();
+        }
+
+        Long userId = userIdsByIdentifier.getIfPresent(key);
+        if (userId != null) {
+            UserProfile userProfile = profilesById.getIfPresent(userId);
+            if (userProfile != null && identifier.equals(field.apply(userProfile))) {
+                return Optional.of(userProfile);
+            }
+            // the user changed this identifier while its profile was evicted
+            userIdsByIdentifier.invalidate(key);
+        }
+
+        Optional<User> user = loader.get();
+        if (user.isEmpty()) {
+            unknownIdentifiers.put(key, Boolean.TRUE);
+            return Optional.empty();
+        }
+        return Optional.of(put(user.get()));
+    }
+
+    /**
+     * Slim view of a user: identity, password hash for credential checks and timestamps.
+     *
+     * @param id identifier of the user
+     * @param name name of the user
+     * @param email email of the user
+     * @param passwordHash BCrypt hash of the password
+     * @param createdAt creation timestamp of the user
+     * @param updatedAt last update timestamp of the user
+     */
+    public record UserProfile(Long id, String name, String email, String passwordHash,
+                              LocalDateTime createdAt, LocalDateTime updatedAt) {
+        @Override
+        public String toString() {
+            return "UserProfile[id=" + id + ", name=" + name + "]";
+        }
+    }
+}
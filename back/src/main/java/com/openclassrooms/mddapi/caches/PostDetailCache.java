@@ -0,0 +1,121 @@
+package com.openclassrooms.mddapi.caches;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.openclassrooms.mddapi.DTO.PostDto;
+import com.openclassrooms.mddapi.events.CommentAddedEvent;
+import com.openclassrooms.mddapi.events.UserUpdatedEvent;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.function.Function;
+
+/**
+ * Bounded in-process cache of assembled post details and their entity tags.
+ *
+ * <p>Entries are keyed by post id. Each entry weighs one plus the number of comments it holds,
+ * and the total weight is bounded by {@code orion.cache.post-detail.maximum-weight}; entries also
+ * expire after {@code orion.cache.post-detail.expire-after-write}. An entry is invalidated once a
+ * comment on its post is committed, and every entry once an author is renamed. A post is loaded at most once at a time, and an invalidation
+ * waits for a load in progress, so a detail read before a comment is never cached after it.
+ * Statistics are published to Micrometer under the cache name {@code postDetail}.</p>
+ */
+@Component
+public class PostDetailCache {
+    private final Cache<Long, PostDetail> cache;
+
+    /**
+     * Construct a new {@code PostDetailCache}.
+     *
+     * @param meterRegistry registry receiving the cache statistics
+     * @param maximumWeight maximum total weight of the cached details
+     * @param expireAfterWrite maximum age of a cached detail
+     */
+    public PostDetailCache(MeterRegistry meterRegistry,
+                           @Value("${orion.cache.post-detail.maximum-weight:50000}") long maximumWeight,
+                           @Value("${orion.cache.post-detail.expire-after-write:10m}") Duration expireAfterWrite) {
+        this.cache = Caffeine.newBuilder()
+                .maximumWeight(maximumWeight)
+                .weigher((Long postId, PostDetail postDetail) -> 1 + postDetail.postDto().getCommentsDto().size())
+                .expireAfterWrite(expireAfterWrite)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "postDetail");
+    }
+
+    /**
+     * Return the cached detail of a post, loading it on a miss.
+     *
+     * @param postId identifier of the post
+     * @param loader function building the detail, returning {@code null} if the post does not exist
+     * @return the {@code PostDetail}, or {@code null} if the post does not exist
+     */
+    public PostDetail get(Long postId, Function<Long, PostDetail> loader) {
+        return cache.get(postId, loader);
+    }
+
+    /**
+     * Return the cached detail of a post without loading it.
+     *
+     * @param postId identifier of the post
+     * @return the {@code PostDetail}, or {@code null} if it is not cached
+     */
+    public PostDetail getIfPresent(Long postId) {
+        return cache.getIfPresent(postId);
+    }
+
+    /**
+     * Drop the cached detail of a post.
+     *
+     * @param postId identifier of the post
+     */
+    public void invalidate(Long postId) {
+        cache.invalidate(postId);
+    }
+
+    /**
+     * Drop the cached details of several posts.
+     *
+     * @param postIds identifiers of the posts
+     */
+    public void invalidateAll(Collection<Long> postIds) {
+        cache.invalidateAll(postIds);
+    }
+
+    /**
+     * Invalidate the detail of a post once a comment on it is committed.
+     *
+     * @param event the event describing the added comment
+     */
+    @TransactionalEventListener
+    public void onCommentAdded(CommentAddedEvent event) {
+        invalidate(event.getPostId());
+    }
+
+    /**
+     * Invalidate every detail once an author is renamed, the names of the post and comment authors
+     * being part of the details.
+     *
+     * @param event the event describing the updated user
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onUserUpdated(UserUpdatedEvent event) {
+        if (event.isNameChanged()) {
+            cache.invalidateAll();
+        }
+    }
+
+    /**
+     * Assembled post detail with the entity tag it was read under.
+     *
+     * @param postDto the post detail
+     * @param eTag the entity tag of the detail
+     */
+    public record PostDetail(PostDto postDto, String eTag) {
+    }
+}
@@ -0,0 +1,134 @@
+package com.openclassrooms.mddapi.caches;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.openclassrooms.mddapi.DTO.SubjectDto;
+import com.openclassrooms.mddapi.events.SubscriptionChangedEvent;
+import com.openclassrooms.mddapi.services.SubjectService;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Immutable in-process snapshot of the subject catalog, served without database or Jackson work.
+ *
+ * <p>The snapshot holds the subjects, their JSON representation serialized once and its gzip
+ * compressed form, along with the entity tag of the version they were read at. It is built at
+ * startup and replaced as a whole, so a request always sees one consistent version. Every
+ * {@code orion.cache.subject-catalog.refresh-interval}, the version of the catalog is read with a
+ * single aggregate and the snapshot is rebuilt only if it changed, or if a subscription changed on
+ * this instance since the last check. Subscriber counts shown in the catalog may therefore lag by
+ * up to one interval.</p>
+ */
+@Component
+public class SubjectCatalog {
+    private final SubjectService subjectService;
+    private final ObjectMapper objectMapper;
+    private final AtomicBoolean stale = new AtomicBoolean(false);
+
+    private volatile CatalogSnapshot snapshot;
+
+    /**
+     * Construct a new {@code SubjectCatalog}.
+     *
+     * @param subjectService service reading the subjects and the version of the catalog
+     * @param objectMapper the mapper used to serialize the catalog once per version
+     */
+    public SubjectCatalog(SubjectService subjectService, ObjectMapper objectMapper) {
+        this.subjectService = subjectService;
+        this.objectMapper = objectMapper;
+    }
+
+    /**
+     * Return the current snapshot, building it if it does not exist yet.
+     *
+     * @return the current {@code CatalogSnapshot}
+     */
+    public CatalogSnapshot get() {
+        CatalogSnapshot current = snapshot;
+        return current != null ? current : refresh(false);
+    }
+
+    /**
+     * Build the first snapshot once the application is ready, so that the first request does not pay for it.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        refresh(false);
+    }
+
+    /**
+     * Rebuild the snapshot if the catalog changed since it was built.
+     */
+    @Scheduled(fixedDelayString = "${orion.cache.subject-catalog.refresh-interval:5s}",
+            initialDelayString = "${orion.cache.subject-catalog.refresh-interval:5s}")
+    public void refreshIfChanged() {
+        refresh(stale.getAndSet(false));
+    }
+
+    /**
+     * Mark the snapshot as stale once a subscription change is committed, since subscriber counts
+     * are part of the catalog. Rebuilding is left to the next periodic check, so that a burst of
+     * subscriptions costs a single rebuild.
+     *
+     * @param event the event describing the subscription change
+     */
+    @TransactionalEventListener
+    public void onSubscriptionChanged(SubscriptionChangedEvent event) {
+        stale.set(true);
+    }
+
+    // the tag is read before the subjects so that it never describes a newer state than the snapshot
+    private synchronized CatalogSnapshot refresh(boolean force) {
+        String eTag = subjectService.getCatalogETag();
+        CatalogSnapshot current = snapshot;
+        if (current != null && !force && current.eTag().equals(eTag)) {
+            return current;
+        }
+
+        List<SubjectDto> subjectsDto = List.copyOf(subjectService.findAll());
+        byte[] json = serialize(subjectsDto);
+        CatalogSnapshot rebuilt = new CatalogSnapshot(eTag, subjectsDto, json, gzip(json));
+        snapshot = rebuilt;
+        return rebuilt;
+    }
+
+    private byte[] serialize(List<SubjectDto> subjectsDto) {
+        try {
+            return objectMapper.writeValueAsBytes(subjectsDto);
+        } catch (JsonProcessingException exception) {
+            throw new IllegalStateException("Subject catalog could not be serialized.", exception);
+        }
+    }
+
+    private static byte[] gzip(byte[] json) {
+        ByteArrayOutputStream compressed = new ByteArrayOutputStream(json.length / 4 + 64);
+        try (GZIPOutputStream gzipOutputStream = new GZIPOutputStream(compressed)) {
+            gzipOutputStream.write(json);
+        } catch (IOException exception) {
+            throw new UncheckedIOException(exception);
+        }
+        return compressed.toByteArray();
+    }
+
+    /**
+     * One version of the catalog: its entity tag, its subjects and their serialized forms.
+     * The byte arrays are shared between requests and must not be modified.
+     *
+     * @param eTag entity tag of the version, without the surrounding quotes
+     * @param subjectsDto the subjects, in an unmodifiable list
+     * @param json the UTF-8 JSON array of the subjects
+     * @param gzipJson the same JSON array, gzip compressed
+     */
+    public record CatalogSnapshot(String eTag, List<SubjectDto> subjectsDto, byte[] json, byte[] gzipJson) {
+    }
+}
@@ -0,0 +1,141 @@
+package com.openclassrooms.mddapi.caches;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.openclassrooms.mddapi.events.SubscriptionChangedEvent;
+import com.openclassrooms.mddapi.repositories.SubscriptionRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Bounded in-process index of the subjects each user is subscribed to.
+ *
+ * <p>A user's subscriptions are held as a sorted {@code long[]} of subject ids, which costs
+ * eight bytes per subscription and answers membership with a binary search, without any
+ * {@code Subscription} entity or boxed identifier. Arrays are never modified once published:
+ * a committed subscription change replaces the user's array with a copy holding one more or one
+ * less id, so readers can keep using the array they got. Entries are weighed by their number of
+ * subscriptions ({@code orion.cache.subscriptions.maximum-weight}) and expire after
+ * {@code orion.cache.subscriptions.expire-after-write} as a safety net. Hit, miss and eviction
+ * counts are published to Micrometer under the cache name {@code subscriptions}.</p>
+ */
+@Component
+public class SubscriptionIndex {
+    private final Cache<Long, long[]> cache;
+    private final SubscriptionRepository subscriptionRepository;
+
+    /**
+     * Construct a new {@code SubscriptionIndex}.
+     *
+     * @param subscriptionRepository repository used to load the subscriptions of a user on a miss
+     * @param meterRegistry registry receiving the cache statistics
+     * @param maximumWeight maximum number of subscriptions kept, each user counting for one more
+     * @param expireAfterWrite maximum age of a user's entry
+     */
+    public SubscriptionIndex(SubscriptionRepository subscriptionRepository,
+                             MeterRegistry meterRegistry,
+                             @Value("${orion.cache.subscriptions.maximum-weight:1000000}") long maximumWeight,
+                             @Value("${orion.cache.subscriptions.expire-after-write:30m}") Duration expireAfterWrite) {
+        this.subscriptionRepository = subscriptionRepository;
+        this.cache = Caffeine.newBuilder()
+                .maximumWeight(maximumWeight)
+                .weigher((Long userId, long[] subjectIds) -> 1 + subjectIds.length)
+                .expireAfterWrite(expireAfterWrite)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "subscriptions");
+    }
+
+    /**
+     * Return the ids of the subjects a user is subscribed to, loading them on a miss.
+     *
+     * <p>The returned array is shared and must not be modified.</p>
+     *
+     * @param userId identifier of the user
+     * @return the subject ids in ascending order, empty if the user has no subscription
+     */
+    public long[] getSubjectIds(Long userId) {
+        return cache.get(userId, this::load);
+    }
+
+    /**
+     * Tell whether a user is subscribed to a subject.
+     *
+     * @param userId identifier of the user
+     * @param subjectId identifier of the subject
+     * @return {@code true} if the subscription exists
+     */
+    public boolean isSubscribed(Long userId, long subjectId) {
+        return Arrays.binarySearch(getSubjectIds(userId), subjectId) >= 0;
+    }
+
+    /**
+     * Apply a committed subscription change to the user's entry, if it is cached.
+     *
+     * <p>Adding an id already present or removing an absent one leaves the entry unchanged,
+     * so an entry loaded after the commit is not altered twice.</p>
+     *
+     * @param event the event describing the subscription change
+     */
+    @TransactionalEventListener
+    public void onSubscriptionChanged(SubscriptionChangedEvent event) {
+        long subjectId = event.getSubjectId();
+        cache.asMap().computeIfPresent(event.getUserId(), (userId, subjectIds) ->
+                event.isSubscribed() ? with(subjectIds, subjectId) : without(subjectIds, subjectId));
+    }
+
+    private long[] load(Long userId) {
+        List<Long> subjectIds = subscriptionRepository.findSubjectIdsByUserId(userId);
+        long[] sortedIds = new long[subjectIds.size()];
+        for (int i = 0; i < sortedIds.length; i++) {
+            sortedIds[i] = subjectIds.get(i);
+        }
+        Arrays.sort(sortedIds);
+        return sortedIds;
+    }
+
+    /**
+     * Return a sorted copy of the array holding one more id, or the array itself if the id is present.
+     *
+     * @param subjectIds sorted subject ids, left unmodified
+     * @param subjectId id to add
+     * @return the sorted ids including {@code subjectId}
+     */
+    static long[] with(long[] subjectIds, long subjectId) {
+        int index = Arrays.binarySearch(subjectIds, subjectId);
+        if (index >= 0) {
+            return subjectIds;
+        }
+        int insertionPoint = -index - 1;
+        long[] updatedIds = new long[subjectIds.length + 1];
+        System.arraycopy(subjectIds, 0, updatedIds, 0, insertionPoint);
+        updatedIds[insertionPoint] = subjectId;
+        System.arraycopy(subjectIds, insertionPoint, updatedIds, insertionPoint + 1, subjectIds.length - insertionPoint);
+        return updatedIds;
+    }
+
+    /**
+     * Return a sorted copy of the array without an id, or the array itself if the id is absent.
+     *
+     * @param subjectIds sorted subject ids, left unmodified
+     * @param subjectId id to remove
+     * @return the sorted ids excluding {@code subjectId}
+     */
+    static long[] without(long[] subjectIds, long subjectId) {
+        int index = Arrays.binarySearch(subjectIds, subjectId);
+        if (index < 0) {
+            return subjectIds;
+        }
+        long[] updatedIds = new long[subjectIds.length - 1];
+        System.arraycopy(subjectIds, 0, updatedIds, 0, index);
+        System.arraycopy(subjectIds, index + 1, updatedIds, index, updatedIds.length - index);
+        return updatedIds;
+    }
+}
@@ -0,0 +1,70 @@
+package com.openclassrooms.mddapi.controllers;
+
+import com.openclassrooms.mddapi.DTO.ImportReportDto;
+import com.openclassrooms.mddapi.security.services.AuthenticationService;
+import com.openclassrooms.mddapi.services.BulkImportService;
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.io.IOException;
+import java.util.Map;
+
+/**
+ * REST controller for administration tasks such as bulk content imports.
+ * All endpoints require authentication handled by AuthByIdInterceptor, and the user
+ * must be listed in {@code orion.admin.emails}.
+ */
+@RestController
+@RequestMapping("/api/admin")
+public class AdminController {
+    private static final String NDJSON_MEDIA_TYPE = "application/x-ndjson";
+
+    private final BulkImportService bulkImportService;
+    private final AuthenticationService authenticationService;
+
+    /**
+     * Constructs a new AdminController with the specified services.
+     *
+     * @param bulkImportService the service importing posts and comments in bulk
+     * @param authenticationService the service responsible for authentication management,
+     *                              used to extract the user ID from the HTTP request with
+     *                              {@code getUserIdFromHttpServletRequest()}
+     */
+    public AdminController(BulkImportService bulkImportService, AuthenticationService authenticationService) {
+        this.bulkImportService = bulkImportService;
+        this.authenticationService = authenticationService;
+    }
+
+    /**
+     * Imports posts and comments from a newline-delimited JSON body, read as it is received.
+     *
+     * @param request the HTTP request with user ID set by AuthByIdInterceptor after JWT validation,
+     *                whose body holds one post or comment per line
+     * @return ResponseEntity containing the number of imported rows and the throughput,
+     *         403 Forbidden if the user is not an administrator,
+     *         400 Bad Request if a line is rejected (previous batches stay imported)
+     *         or 500 Internal Server Error if the body cannot be read
+     */
+    @PostMapping(value = "/import", consumes = NDJSON_MEDIA_TYPE)
+    public ResponseEntity<?> importContent(HttpServletRequest request) {
+        Long userId = authenticationService.getUserIdFromHttpServletRequest(request);
+        if(!bulkImportService.isAdmin(userId)) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
+        }
+
+        try {
+            ImportReportDto importReportDto = bulkImportService.importNdjson(request.getInputStream());
+            return ResponseEntity.ok(importReportDto);
+        }
+        catch(IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
+        catch(IOException ignored) {
+            return ResponseEntity.status(500).body(Map.of("error", "An error occurred while reading the import"));
+        }
+    }
+}
@@ -1,14 +1,25 @@
 package com.openclassrooms.mddapi.controllers;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.openclassrooms.mddapi.DTO.*;
+import com.openclassrooms.mddapi.caches.PostDetailCache;
 import com.openclassrooms.mddapi.security.services.AuthenticationService;
+import com.openclassrooms.mddapi.services.FeedPushService;
 import com.openclassrooms.mddapi.services.PostService;
 import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
-import java.util.List;
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.util.Map;
+import java.util.NoSuchElementException;
 
 /**
  * REST controller for managing posts and post comments.
@@ -18,79 +29,196 @@ import java.util.Map;
 @RestController
 @RequestMapping("/api")
 public class PostController {
+    private static final String NDJSON_MEDIA_TYPE = "application/x-ndjson";
+    // responses may be stored by the browser but must be revalidated with their ETag before reuse
+    private static final CacheControl REVALIDATE = CacheControl.noCache().cachePrivate();
 
     private final PostService postService;
+    private final FeedPushService feedPushService;
     private final AuthenticationService authenticationService;
-
+    private final ObjectMapper objectMapper;
 
     /**
      * Constructs a new PostController with the specified services.
      *
      * @param postService the service for post operations
+     * @param feedPushService the service pushing new posts to connected users
      * @param authenticationService the service responsible for authentication management,
      *                              used to extract the user ID from the HTTP request with
      *                              {@code getUserIdFromHttpServletRequest()}
+     * @param objectMapper the mapper used to serialize each line of the streamed feed
      */
-    public PostController(PostService postService, AuthenticationService authenticationService) {
+    public PostController(PostService postService, FeedPushService feedPushService,
+                          AuthenticationService authenticationService, ObjectMapper objectMapper) {
         this.postService = postService;
+        this.feedPushService = feedPushService;
         this.authenticationService = authenticationService;
+        this.objectMapper = objectMapper;
     }
 
     /**
-     * Retrieves all posts from subscribed topics for the authenticated user.
+     * Retrieves one page of posts from subscribed topics for the authenticated user.
      *
      * @param request the HTTP request containing user authentication information after JWT validation.
-     * @return ResponseEntity containing a list of posts which the user authenticated is subscribed or 204 No Content if no posts found
+     * @param webRequest the current request, used to evaluate the {@code If-None-Match} validator
+     * @param cursor the cursor returned with the previous page, omitted for the first page
+     * @param size the number of posts to return, capped by the service
+     * @return ResponseEntity containing a page of posts, sorted from the most recently updated, with the cursor of the next page,
+     *         304 Not Modified if the client already holds this version of the page,
+     *         204 No Content if no posts found or 400 Bad Request if the cursor is invalid
      */
     @GetMapping("/posts/subscribed")
-    public ResponseEntity<Iterable<PostListDto>> getSubscribedPostsForUser(HttpServletRequest request) {
+    public ResponseEntity<PostPageDto> getSubscribedPostsForUser(HttpServletRequest request,
+                                                                 WebRequest webRequest,
+                                                                 @RequestParam(required = false) String cursor,
+                                                                 @RequestParam(defaultValue = "20") int size) {
         Long userId = authenticationService.getUserIdFromHttpServletRequest(request);
 
-        List<PostListDto> postsListDto = this.postService.getSubscribedPostsForUser(userId);
+        PostPageDto postPageDto;
+        try {
+            postPageDto = this.postService.getSubscribedPostsForUser(userId, cursor, size);
+        }
+        catch(IllegalArgumentException ignored) {
+            return ResponseEntity.badRequest().build();
+        }
 
-        if(postsListDto.isEmpty()) {
+        if(postPageDto.getPostsListDto().isEmpty()) {
             return ResponseEntity.noContent().build();
         }
-        return ResponseEntity.ok(postsListDto);
+
+        // the tag is derived from the page actually served, so it can never validate a stale copy
+        String eTag = this.postService.getSubscribedPostsETag(postPageDto);
+        if(webRequest.checkNotModified(eTag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(eTag).build();
+        }
+        return ResponseEntity.ok().eTag(eTag).cacheControl(REVALIDATE).body(postPageDto);
+    }
+
+    /**
+     * Returns the posts created or updated in subscribed topics since a high-water mark, for feed polling.
+     *
+     * @param request the HTTP request containing user authentication information after JWT validation.
+     * @param since the high-water mark returned with the first feed page or the previous delta
+     * @return ResponseEntity containing the changed posts, oldest first, with the new high-water mark,
+     *         204 No Content if nothing changed or 400 Bad Request if the high-water mark is missing or invalid
+     */
+    @GetMapping("/posts/subscribed/since")
+    public ResponseEntity<PostDeltaDto> getSubscribedPostsSince(HttpServletRequest request, @RequestParam String since) {
+        Long userId = authenticationService.getUserIdFromHttpServletRequest(request);
+
+        PostDeltaDto postDeltaDto;
+        try {
+            postDeltaDto = this.postService.getSubscribedPostsSince(userId, since);
+        }
+        catch(IllegalArgumentException ignored) {
+            return ResponseEntity.badRequest().build();
+        }
+
+        if(postDeltaDto.getPostsListDto().isEmpty()) {
+            return ResponseEntity.noContent().build();
+        }
+        return ResponseEntity.ok(postDeltaDto);
+    }
+
+    /**
+     * Streams all posts from subscribed topics for the authenticated user as newline-delimited JSON.
+     * Each post is written as soon as it is read from the database, most recently updated first,
+     * so the first bytes leave the server before the whole feed has been read.
+     *
+     * @param request the HTTP request containing user authentication information after JWT validation.
+     * @return ResponseEntity streaming one JSON post per line
+     */
+    @GetMapping(value = "/posts/subscribed/stream", produces = NDJSON_MEDIA_TYPE)
+    public ResponseEntity<StreamingResponseBody> streamSubscribedPostsForUser(HttpServletRequest request) {
+        Long userId = authenticationService.getUserIdFromHttpServletRequest(request);
+
+        StreamingResponseBody body = outputStream -> this.postService.streamSubscribedPostsForUser(userId, postListDto -> {
+            try {
+                outputStream.write(objectMapper.writeValueAsBytes(postListDto));
+                outputStream.write('\n');
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+
+        return ResponseEntity.ok().contentType(MediaType.parseMediaType(NDJSON_MEDIA_TYPE)).body(body);
+    }
+
+    /**
+     * Opens a Server-Sent Events stream on which posts created in subscribed topics are pushed
+     * as {@code post} events once committed. Opening a new stream closes the previous one of the same user.
+     *
+     * @param request the HTTP request containing user authentication information after JWT validation.
+     * @return the emitter of the event stream
+     */
+    @GetMapping(value = "/posts/subscribed/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter subscribeToNewPosts(HttpServletRequest request) {
+        Long userId = authenticationService.getUserIdFromHttpServletRequest(request);
+        return this.feedPushService.connect(userId);
     }
 
     /**
      * Finds a specific post by its ID.
      *
      * @param request the HTTP request containing user authentication information after JWT validation.
+     * @param webRequest the current request, used to evaluate the {@code If-None-Match} validator
      * @param postId the ID of the post to find
-     * @return ResponseEntity containing the post data or 404 Not Found if post doesn't exist
+     * @return ResponseEntity containing the post data, 304 Not Modified if the client already holds
+     *         this version of the post, or 404 Not Found if post doesn't exist
      */
     @GetMapping("posts/{postId}")
-    public ResponseEntity<PostDto> findPostById(HttpServletRequest request, @PathVariable Long postId) {
+    public ResponseEntity<PostDto> findPostById(HttpServletRequest request, WebRequest webRequest, @PathVariable Long postId) {
         authenticationService.getUserIdFromHttpServletRequest(request);
 
-        PostDto postDto = this.postService.findPostById(postId);
-        if(postDto == null) {
+        String eTag = this.postService.getPostETag(postId);
+        if(eTag == null) {
             return ResponseEntity.notFound().build();
         }
-        else {
-            return ResponseEntity.ok(postDto);
+        if(webRequest.checkNotModified(eTag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(eTag).build();
+        }
+
+        // the detail is only assembled when the client copy is stale, and served with the tag it was read under
+        PostDetailCache.PostDetail postDetail;
+        try {
+            postDetail = this.postService.findPostDetail(postId);
         }
+        catch(NoSuchElementException ignored) {
+            return ResponseEntity.notFound().build();
+        }
+        return ResponseEntity.ok().eTag(postDetail.eTag()).cacheControl(REVALIDATE).body(postDetail.postDto());
     }
 
     /**
-     * Return all comments for a specific post.
+     * Return one page of comments for a specific post, oldest first.
      *
      * @param request the HTTP request containing user authentication information after JWT validation.
      * @param postId the ID of the post to get comments for
-     * @return ResponseEntity containing a list of comments or 204 No Content if no comments found
+     * @param cursor the cursor returned with the post detail or the previous page, omitted for the first page
+     * @param size the number of comments to return, capped by the service
+     * @return ResponseEntity containing a page of comments with the cursor after its last comment,
+     *         204 No Content if no comments found or 400 Bad Request if the cursor is invalid
      */
     @GetMapping("/posts/{postId}/comments")
-    public ResponseEntity<Iterable<CommentDto>> getCommentsForPost(HttpServletRequest request, @PathVariable Long postId) {
+    public ResponseEntity<CommentPageDto> getCommentsForPost(HttpServletRequest request,
+                                                             @PathVariable Long postId,
+                                                             @RequestParam(required = false) String cursor,
+                                                             @RequestParam(defaultValue = "20") int size) {
         authenticationService.getUserIdFromHttpServletRequest(request);
-        Iterable<CommentDto> commentsDto = this.postService.findCommentsByPostId(postId);
 
-        if(!commentsDto.iterator().hasNext()) {
+        CommentPageDto commentPageDto;
+        try {
+            commentPageDto = this.postService.getCommentsPage(postId, cursor, size);
+        }
+        catch(IllegalArgumentException ignored) {
+            return ResponseEntity.badRequest().build();
+        }
+
+        if(commentPageDto.getCommentsDto().isEmpty()) {
             return ResponseEntity.noContent().build();
         }
 
-        return ResponseEntity.ok(commentsDto);
+        return ResponseEntity.ok(commentPageDto);
     }
 
     /**
@@ -1,13 +1,20 @@
 package com.openclassrooms.mddapi.controllers;
 
+import com.openclassrooms.mddapi.caches.SubjectCatalog;
 import com.openclassrooms.mddapi.DTO.SubjectDto;
 import com.openclassrooms.mddapi.security.services.AuthenticationService;
 import com.openclassrooms.mddapi.services.SubjectService;
 import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
 
 import java.util.List;
 
@@ -20,37 +27,137 @@ import java.util.List;
 @RequestMapping("/api")
 public class SubjectController {
 
+    private static final String GZIP = "gzip";
+
+    private final SubjectCatalog subjectCatalog;
     private final SubjectService subjectService;
     private final AuthenticationService authenticationService;
 
     /**
      * Constructs a new SubjectController with the specified services.
      *
+     * @param subjectCatalog the snapshot of the subject catalog
      * @param subjectService the service for subject operations
      * @param authenticationService the service responsible for authentication management,
      *                              used to extract the user ID from the HTTP request with
      *                              {@code getUserIdFromHttpServletRequest()}
      */
-    public SubjectController(SubjectService subjectService, AuthenticationService authenticationService) {
+    public SubjectController(SubjectCatalog subjectCatalog, SubjectService subjectService, AuthenticationService authenticationService) {
+        this.subjectCatalog = subjectCatalog;
         this.subjectService = subjectService;
         this.authenticationService = authenticationService;
     }
 
     /**
-     * Return all available subjects.
+     * Return all available subjects from the in-memory catalog snapshot, already serialized.
+     * The gzip compressed form is sent to clients that accept it with a non-zero quality.
      *
      * @param request the HTTP request containing user authentication information after JWT validation.
-     * @return ResponseEntity containing a list of subjects or 204 No Content if no subjects found
+     * @param webRequest the current request, used to evaluate the {@code If-None-Match} validator
+     * @param acceptEncoding the {@code Accept-Encoding} header of the request, if any
+     * @return ResponseEntity containing the JSON list of subjects, 304 Not Modified if the client already holds
+     *         this version of the catalog, or 204 No Content if no subjects found
      */
     @GetMapping("/subjects")
-    public ResponseEntity<Iterable<SubjectDto>> getSubjects(HttpServletRequest request) {
+    public ResponseEntity<byte[]> getSubjects(HttpServletRequest request, WebRequest webRequest,
+                                              @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
         authenticationService.getUserIdFromHttpServletRequest(request);
 
-        List<SubjectDto> subjectDto = this.subjectService.findAll();
-        if(subjectDto.isEmpty()) {
+        SubjectCatalog.CatalogSnapshot catalogSnapshot = this.subjectCatalog.get();
+        boolean gzip = acceptsGzip(acceptEncoding);
+        // each encoding is a distinct representation and gets its own validator
+        String eTag = gzip ? catalogSnapshot.eTag() + "-" + GZIP : catalogSnapshot.eTag();
+        if(webRequest.checkNotModified(eTag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(eTag).varyBy(HttpHeaders.ACCEPT_ENCODING).build();
+        }
+
+        if(catalogSnapshot.subjectsDto().isEmpty()) {
+            return ResponseEntity.noContent().build();
+        }
+
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                .eTag(eTag)
+                .cacheControl(CacheControl.noCache().cachePrivate())
+                .varyBy(HttpHeaders.ACCEPT_ENCODING)
+                .contentType(MediaType.APPLICATION_JSON);
+        if(gzip) {
+            return response.header(HttpHeaders.CONTENT_ENCODING, GZIP).body(catalogSnapshot.gzipJson());
+        }
+        return response.body(catalogSnapshot.json());
+    }
+
+    /**
+     * Tell whether an {@code Accept-Encoding} header accepts gzip.
+     *
+     * <p>The header is read as a list of content codings, each with an optional quality value.
+     * gzip, or its {@code x-gzip} alias, is accepted when listed with a quality above zero; when it is
+     * not listed, a {@code *} coding with a quality above zero accepts it. Codings are compared
+     * case-insensitively and an invalid quality value counts as zero.</p>
+     *
+     * @param acceptEncoding the {@code Accept-Encoding} header, or {@code null} if absent
+     * @return {@code true} if the gzip compressed representation may be sent
+     */
+    static boolean acceptsGzip(String acceptEncoding) {
+        if (acceptEncoding == null) {
+            return false;
+        }
+
+        Double gzipQuality = null;
+        Double wildcardQuality = null;
+        for (String element : acceptEncoding.split(",")) {
+            String[] parts = element.split(";");
+            String coding = parts[0].trim().toLowerCase();
+            double quality = 1;
+            for (int i = 1; i < parts.length; i++) {
+                String parameter = parts[i].trim();
+                if (parameter.length() > 1 && Character.toLowerCase(parameter.charAt(0)) == 'q' && parameter.charAt(1) == '=') {
+                    quality = parseQuality(parameter.substring(2).trim());
+                }
+            }
+            if (coding.equals(GZIP) || coding.equals("x-" + GZIP)) {
+                gzipQuality = gzipQuality == null ? quality : Math.max(gzipQuality, quality);
+            } else if (coding.equals("*")) {
+                wildcardQuality = quality;
+            }
+        }
+
+        if (gzipQuality != null) {
+            return gzipQuality > 0;
+        }
+        return wildcardQuality != null && wildcardQuality > 0;
+    }
+
+    // a quality value is a number between 0 and 1 with at most three decimals
+    private static double parseQuality(String value) {
+        if (!value.matches("0(\\.\\d{0,3})?|1(\\.0{0,3})?")) {
+            return 0;
+        }
+        return Double.parseDouble(value);
+    }
+
+    /**
+     * Return all available subjects, each with whether the authenticated user is subscribed to it
+     * and its subscriber count, so that the topics page needs a single request.
+     *
+     * @param request the HTTP request containing user authentication information after JWT validation.
+     * @param webRequest the current request, used to evaluate the {@code If-None-Match} validator
+     * @return ResponseEntity containing a list of subjects with their subscription state, 304 Not Modified
+     *         if the client already holds this version of the list, or 204 No Content if no subjects found
+     */
+    @GetMapping("/subjects/user")
+    public ResponseEntity<List<SubjectDto>> getSubjectsWithSubscriptionState(HttpServletRequest request, WebRequest webRequest) {
+        Long userId = authenticationService.getUserIdFromHttpServletRequest(request);
+
+        String eTag = this.subjectService.getSubscriptionStateETag(userId);
+        if(webRequest.checkNotModified(eTag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(eTag).build();
+        }
+
+        List<SubjectDto> subjectsDto = this.subjectService.findAllWithSubscriptionState(userId);
+        if(subjectsDto.isEmpty()) {
             return ResponseEntity.noContent().build();
         }
 
-        return ResponseEntity.ok(subjectDto);
+        return ResponseEntity.ok().eTag(eTag).cacheControl(CacheControl.noCache().cachePrivate()).body(subjectsDto);
     }
 }
@@ -1,11 +1,15 @@
 package com.openclassrooms.mddapi.controllers;
 
+import com.openclassrooms.mddapi.DTO.SubscriptionBatchDto;
 import com.openclassrooms.mddapi.DTO.SubscriptionDto;
 import com.openclassrooms.mddapi.security.services.AuthenticationService;
 import com.openclassrooms.mddapi.services.SubscriptionService;
 import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 import java.util.List;
 import java.util.Map;
@@ -39,18 +43,25 @@ public class SubscriptionController {
      * Return all subscriptions for the authenticated user.
      *
      * @param request the HTTP request with user ID set by AuthByIdInterceptor after JWT validation
-     * @return ResponseEntity containing a list of user subscriptions or 204 No Content if no subscriptions found
+     * @param webRequest the current request, used to evaluate the {@code If-None-Match} validator
+     * @return ResponseEntity containing a list of user subscriptions, 304 Not Modified if the client already
+     *         holds this version of the list, or 204 No Content if no subscriptions found
      */
     @GetMapping("/subscriptions/user")
-    public ResponseEntity<List<SubscriptionDto>> getAllSubscriptionsForUser(HttpServletRequest request) {
+    public ResponseEntity<List<SubscriptionDto>> getAllSubscriptionsForUser(HttpServletRequest request, WebRequest webRequest) {
         Long userId = authenticationService.getUserIdFromHttpServletRequest(request);
 
+        String eTag = subscriptionService.getSubscriptionsETag(userId);
+        if(webRequest.checkNotModified(eTag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(eTag).build();
+        }
+
         List<SubscriptionDto> subscriptionsDto = subscriptionService.getAllSubscriptionsForUser(userId);
 
         if(subscriptionsDto.isEmpty()) {
             return ResponseEntity.noContent().build();
         }
-        return ResponseEntity.ok(subscriptionsDto);
+        return ResponseEntity.ok().eTag(eTag).cacheControl(CacheControl.noCache().cachePrivate()).body(subscriptionsDto);
     }
 
     /**
@@ -74,6 +85,28 @@ public class SubscriptionController {
         return ResponseEntity.ok(Map.of("message", "Subscribed successfully"));
     }
 
+    /**
+     * Subscribes the authenticated user to a list of subjects and unsubscribes them from another,
+     * in a single transaction. Subjects already in the requested state are left unchanged.
+     *
+     * @param request the HTTP request with user ID set by AuthByIdInterceptor after JWT validation
+     * @param subscriptionBatchDto the identifiers of the subjects to subscribe to and to unsubscribe from
+     * @return ResponseEntity containing success message or error details
+     *         Returns 400 Bad Request if a subject does not exist, appears in both lists or if the batch is too large
+     */
+    @PostMapping("/subscriptions/batch")
+    public ResponseEntity<Map<String, String>> updateSubscriptions(HttpServletRequest request, @RequestBody SubscriptionBatchDto subscriptionBatchDto) {
+        Long userId = authenticationService.getUserIdFromHttpServletRequest(request);
+
+        try {
+            subscriptionService.updateSubscriptions(userId, subscriptionBatchDto.getSubscribe(), subscriptionBatchDto.getUnsubscribe());
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
+
+        return ResponseEntity.ok(Map.of("message", "Subscriptions updated successfully"));
+    }
+
     /**
      * Unsubscribes the authenticated user from a specific subject.
      *
@@ -3,6 +3,7 @@ package com.openclassrooms.mddapi.controllers;
 import com.openclassrooms.mddapi.DTO.LoginUserDto;
 import com.openclassrooms.mddapi.DTO.RegisterUserDto;
 import com.openclassrooms.mddapi.DTO.UserDto;
+import com.openclassrooms.mddapi.caches.IdentityCache;
 import com.openclassrooms.mddapi.models.User;
 import com.openclassrooms.mddapi.security.services.AuthenticationService;
 import com.openclassrooms.mddapi.security.services.JWTService;
@@ -55,7 +56,7 @@ public class UserController {
 
          Authentication authentication = this.authenticationService.handleUsernamePasswordAuthenticationToken(newUser);
 
-        return tokenResponse(authentication);
+        return tokenResponse(authentication, newUser.getId());
     }
 
     /**
@@ -66,17 +67,16 @@ public class UserController {
      */
     @PostMapping("/login")
     public ResponseEntity<Map<String, String>> loginUser(@RequestBody LoginUserDto loginUserDto) {
-        User user = userService.findByEmail(loginUserDto.getIdentifier())
-                .or(() -> userService.findByName(loginUserDto.getIdentifier()))
+        IdentityCache.UserProfile userProfile = userService.findProfileByIdentifier(loginUserDto.getIdentifier())
                 .orElse(null);
 
-        if(user == null) {
+        if(userProfile == null) {
             return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(Map.of("error", "Invalid credentials"));
         }
 
-        Authentication authentication = this.authenticationService.handleUsernamePasswordAuthenticationToken(loginUserDto, user);
+        Authentication authentication = this.authenticationService.handleUsernamePasswordAuthenticationToken(loginUserDto, userProfile);
 
-        return tokenResponse(authentication);
+        return tokenResponse(authentication, userProfile.id());
     }
 
     /**
@@ -104,36 +104,66 @@ public class UserController {
 
         Authentication authentication = this.authenticationService.handleUsernamePasswordAuthenticationToken(updatedUser);
 
-        return tokenResponse(authentication);
+        return tokenResponse(authentication, updatedUser.getId());
+    }
+
+    /**
+     * Partially updates the authenticated user's profile: only the supplied fields are changed
+     * and the password is rehashed only when a new one is given.
+     *
+     * @param request the HTTP request with user ID set by AuthByIdInterceptor after JWT validation
+     * @param registerUserDto the fields to change among username, email and password
+     * @return ResponseEntity containing new JWT token on successful update or error message
+     *         Returns 401 Unauthorized if token is invalid
+     *         Returns 400 Bad Request if the new username or email is already taken
+     */
+    @PatchMapping("/user")
+    public ResponseEntity<Map<String, String>> patchUser(HttpServletRequest request, @RequestBody RegisterUserDto registerUserDto) {
+        Long userId = (Long) request.getAttribute("userId");
+
+        if(userId == null) {
+            return ResponseEntity.status(401).body(Map.of("error", "Invalid token"));
+        }
+
+        User updatedUser;
+        try {
+            updatedUser = userService.patch(userId, registerUserDto);
+        }
+        catch(IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
+
+        Authentication authentication = this.authenticationService.handleUsernamePasswordAuthenticationToken(updatedUser);
+
+        return tokenResponse(authentication, updatedUser.getId());
     }
 
     /**
      * Return the current authenticated user's information.
      *
-     * @param authorizationHeader the Bearer token in Authorization header for user identification
+     * @param request the HTTP request with user ID set by AuthByIdInterceptor after JWT validation
      * @return ResponseEntity containing user information or error status
      *         Returns 401 Unauthorized if token is missing or invalid
      *         Returns 404 Not Found if user doesn't exist
      */
     @GetMapping("/currentUser")
-    public ResponseEntity<UserDto> getCurrentUser(@RequestHeader("Authorization") String authorizationHeader) {
-        if (authorizationHeader == null || !authorizationHeader.startsWith("Bearer ")) {
+    public ResponseEntity<UserDto> getCurrentUser(HttpServletRequest request) {
+        Long userId = (Long) request.getAttribute("userId");
+        if (userId == null) {
             throw new ResponseStatusException(HttpStatus.UNAUTHORIZED, "Missing or invalid Authorization header");
         }
 
-       String userEmail = authenticationService.handleUserFromToken(authorizationHeader).getEmail();
-
-        User user = userService.findByEmail(userEmail)
+        IdentityCache.UserProfile userProfile = userService.findProfileById(userId)
                 .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "user not found"));
 
-        UserDto userDto = userService.convertUserToUserDto(user);
+        UserDto userDto = userService.convertUserProfileToUserDto(userProfile);
 
         return ResponseEntity.ok(userDto);
     }
 
     // method to generate standardized JWT token response with jwtService.
-    private ResponseEntity<Map<String, String>> tokenResponse(Authentication authentication) {
-        String token = this.jwtService.generateToken(authentication);
+    private ResponseEntity<Map<String, String>> tokenResponse(Authentication authentication, Long userId) {
+        String token = this.jwtService.generateToken(authentication, userId);
 
         if (token == null || token.isBlank()) {
             return ResponseEntity.status(500).body(Map.of("error", "Token generation failed"));
@@ -0,0 +1,15 @@
+package com.openclassrooms.mddapi.events;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * Application event published by {@code PostService} when a comment is added to a post.
+ */
+@Getter
+@AllArgsConstructor
+public class CommentAddedEvent {
+    private final Long postId;
+    private final Long commentId;
+    private final Long userId;
+}
@@ -0,0 +1,21 @@
+package com.openclassrooms.mddapi.events;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.time.LocalDateTime;
+
+/**
+ * Application event published by {@code PostService} when a new post is persisted.
+ *
+ * <p>Carries only identifiers and the post timestamp so listeners can react after the
+ * transaction commits without holding on to managed entities.</p>
+ */
+@Getter
+@AllArgsConstructor
+public class PostCreatedEvent {
+    private final Long postId;
+    private final Long subjectId;
+    private final Long userId;
+    private final LocalDateTime updatedAt;
+}
@@ -0,0 +1,16 @@
+package com.openclassrooms.mddapi.events;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * Application event published by {@code SubscriptionService} when a user subscribes to
+ * or unsubscribes from a subject.
+ */
+@Getter
+@AllArgsConstructor
+public class SubscriptionChangedEvent {
+    private final Long userId;
+    private final Long subjectId;
+    private final boolean subscribed;
+}
@@ -0,0 +1,26 @@
+package com.openclassrooms.mddapi.events;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.time.LocalDateTime;
+
+/**
+ * Application event published by {@code UserService} when the profile of a user is updated,
+ * inside a transaction for partial updates.
+ *
+ * <p>Carries a copy of the updated state taken when the changes were flushed, so listeners running
+ * after the commit never read the managed entity, which the persistence context may still change.
+ * {@code nameChanged} tells listeners holding the author name of posts and comments to drop it.</p>
+ */
+@Getter
+@AllArgsConstructor
+public class UserUpdatedEvent {
+    private final Long userId;
+    private final String name;
+    private final String email;
+    private final String passwordHash;
+    private final LocalDateTime createdAt;
+    private final LocalDateTime updatedAt;
+    private final boolean nameChanged;
+}
@@ -15,12 +15,20 @@ import java.time.LocalDateTime;
  * <p>Stores the comment text, creation and update timestamps, and references to the
  * authoring {@code User} and the associated {@code Post}. The {@code toString}
  * representation excludes user and post to avoid circular references.</p>
+ *
+ * <p>The {@value #WITH_USER_GRAPH} fetch plan loads the author together with the comment.</p>
  */
 @Entity
 @Data
+@NamedEntityGraph(name = Comment.WITH_USER_GRAPH, attributeNodes = @NamedAttributeNode("user"))
 @ToString(exclude= {"user", "post"})
-@Table(name = "comments")
+@Table(name = "comments", indexes = @Index(name = "idx_comments_post_created_id", columnList = "post_id, created_at, id"))
 public class Comment {
+    /**
+     * Name of the fetch plan loading a comment with its author.
+     */
+    public static final String WITH_USER_GRAPH = "Comment.withUser";
+
     /**
      * Primary key identifier of the comment.
      */
@@ -2,6 +2,7 @@ package com.openclassrooms.mddapi.models;
 
 import jakarta.persistence.*;
 import lombok.Data;
+import org.hibernate.annotations.ColumnDefault;
 import org.hibernate.annotations.CreationTimestamp;
 import org.hibernate.annotations.UpdateTimestamp;
 
@@ -16,11 +17,39 @@ import java.util.List;
  * the authoring {@link User}, the associated {@link Subject}, and the list of
  * {@link Comment} entities attached to the post. Comments are cascaded and
  * removed when the post is deleted.</p>
+ *
+ * <p>The {@code (subject_id, updated_at, id)} index backs the keyset-paginated feed,
+ * which filters by subject and sorts by update date then identifier.</p>
+ *
+ * <p>The {@value #DETAIL_GRAPH} fetch plan loads the content, the author and the subject together
+ * with the post, for the post detail.</p>
  */
 @Entity
 @Data
-@Table(name = "posts")
+@NamedEntityGraph(name = Post.DETAIL_GRAPH, attributeNodes = {
+        @NamedAttributeNode("content"),
+        @NamedAttributeNode("user"),
+        @NamedAttributeNode("subject")
+})
+@Table(name = "posts", indexes = {
+        @Index(name = "idx_posts_subject_updated_id", columnList = "subject_id, updated_at, id")
+})
 public class Post {
+    /**
+     * Maximum number of content characters kept in {@link #excerpt}.
+     */
+    public static final int EXCERPT_LENGTH = 300;
+
+    /**
+     * Suffix appended to {@link #excerpt} when the content was truncated.
+     */
+    public static final String EXCERPT_ELLIPSIS = "...";
+
+    /**
+     * Name of the fetch plan used to load a post detail.
+     */
+    public static final String DETAIL_GRAPH = "Post.detail";
+
     /**
      * Primary key identifier of the post.
      */
@@ -39,11 +68,23 @@ public class Post {
     /**
      * Main textual content of the post.
      *
-     * <p>Required field with a maximum length of 15000 characters.</p>
+     * <p>Required field with a maximum length of 15000 characters. Lazily fetched (through
+     * bytecode enhancement) so that loading a post for lists does not read the large column.</p>
      */
+    @Basic(fetch = FetchType.LAZY)
     @Column(nullable = false, length = 15000)
     private String content;
 
+    /**
+     * Preview of the content shown in post lists.
+     *
+     * <p>Computed once when the post is written: the first {@value #EXCERPT_LENGTH} characters
+     * of the content, followed by {@value #EXCERPT_ELLIPSIS} when truncated. Posts written before
+     * the column existed are filled in by the {@code V2_1} backfill migration.</p>
+     */
+    @Column(length = EXCERPT_LENGTH + 3)
+    private String excerpt;
+
     /**
      * Timestamp when the post was created.
      *
@@ -84,6 +125,16 @@ public class Post {
     @JoinColumn(name = "subject_id", nullable = false, foreignKey = @ForeignKey(name= "fk_post_subject"))
     private Subject subject;
 
+    /**
+     * Number of comments on the post.
+     *
+     * <p>Denormalized so that lists can show it without touching {@link #comments}. Only changed
+     * by atomic increments issued with each new comment, and repaired by the periodic reconciliation.</p>
+     */
+    @ColumnDefault("0")
+    @Column(name = "comment_count", nullable = false)
+    private long commentCount;
+
     /**
      * Comments attached to the post.
      *
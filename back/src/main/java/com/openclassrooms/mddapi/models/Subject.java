@@ -3,6 +3,7 @@ package com.openclassrooms.mddapi.models;
 import jakarta.persistence.*;
 import lombok.Data;
 import lombok.ToString;
+import org.hibernate.annotations.ColumnDefault;
 import org.hibernate.annotations.CreationTimestamp;
 import org.hibernate.annotations.UpdateTimestamp;
 
@@ -63,6 +64,28 @@ public class Subject {
     @Column(name= "updated_at")
     private LocalDateTime updatedAt;
 
+    /**
+     * Number of users subscribed to the subject.
+     *
+     * <p>Denormalized so that the catalog can show it without touching {@link #subscriptions}. Only
+     * changed by atomic increments and decrements issued with each subscription change, and repaired
+     * by the periodic reconciliation.</p>
+     */
+    @ColumnDefault("0")
+    @Column(name = "subscriber_count", nullable = false)
+    private long subscriberCount;
+
+    /**
+     * Number of times {@link #subscriberCount} has been changed.
+     *
+     * <p>Incremented by the same statements as the counter and never decremented, so that the
+     * version of the catalog changes with every counter change, even when an increment and a
+     * decrement leave the counters where they were. Not written by the entity itself.</p>
+     */
+    @ColumnDefault("0")
+    @Column(name = "counters_version", nullable = false, insertable = false, updatable = false)
+    private long countersVersion;
+
     /**
      * Posts that belong to this subject.
      *
@@ -8,12 +8,15 @@ import lombok.*;
  *
  * <p>Links a {@link User} and a {@link Subject} to represent that the user
  * is subscribed to the subject. Associations use lazy fetching and explicit
- * foreign key column names are provided. The {@code toString} output excludes
- * the relationships to avoid circular references and large outputs.</p>
+ * foreign key column names are provided. A user can be subscribed to a subject
+ * only once, which is enforced by a unique constraint on {@code (user_id, subject_id)}.
+ * The {@code toString} output excludes the relationships to avoid circular
+ * references and large outputs.</p>
  */
 @Entity
 @Data
-@Table(name = "subscriptions")
+@Table(name = "subscriptions", uniqueConstraints = @UniqueConstraint(
+        name = "uk_subscriptions_user_subject", columnNames = {"user_id", "subject_id"}))
 public class Subscription {
     /**
      * Primary key identifier of the subscription.
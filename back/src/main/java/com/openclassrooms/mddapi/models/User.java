@@ -4,6 +4,7 @@ import jakarta.persistence.*;
 import lombok.Data;
 import lombok.ToString;
 import org.hibernate.annotations.CreationTimestamp;
+import org.hibernate.annotations.DynamicUpdate;
 import org.hibernate.annotations.UpdateTimestamp;
 
 import java.time.LocalDateTime;
@@ -15,10 +16,12 @@ import java.util.List;
  *
  * <p>Holds basic user credentials and relationships to posts, comments and
  * subject subscriptions. The {@code toString} output excludes collections
- * and the password to avoid sensitive or large/circular outputs.</p>
+ * and the password to avoid sensitive or large/circular outputs. Updates only
+ * write the columns that changed, so renaming a user does not rewrite its password hash.</p>
  */
 @Entity
 @Data
+@DynamicUpdate
 @ToString(exclude = {"posts", "subscriptions", "comments", "password"})
 @Table(name = "users")
 public class User {
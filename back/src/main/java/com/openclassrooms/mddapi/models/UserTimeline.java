@@ -0,0 +1,42 @@
+package com.openclassrooms.mddapi.models;
+
+import jakarta.persistence.*;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+/**
+ * Entity representing one entry of a user's precomputed home feed (fan-out on write).
+ *
+ * <p>Each row references a post of a subject the user is subscribed to, by identifier only,
+ * together with the post timestamp used for ordering. Rows are written when a post is created
+ * and when the user subscribes to a subject, and removed when the user unsubscribes. The
+ * {@code (user_id, ts, post_id)} index turns a feed page into a single range scan.</p>
+ */
+@Entity
+@Data
+@IdClass(UserTimelineId.class)
+@Table(name = "user_timeline", indexes = {
+        @Index(name = "idx_user_timeline_user_ts_post", columnList = "user_id, ts, post_id")
+})
+public class UserTimeline {
+    /**
+     * Identifier of the user owning the timeline entry.
+     */
+    @Id
+    @Column(name = "user_id")
+    private Long userId;
+
+    /**
+     * Identifier of the post shown in the timeline.
+     */
+    @Id
+    @Column(name = "post_id")
+    private Long postId;
+
+    /**
+     * Timestamp of the post ({@code updated_at}) when the entry was written, used for ordering.
+     */
+    @Column(name = "ts", nullable = false)
+    private LocalDateTime ts;
+}
@@ -0,0 +1,18 @@
+package com.openclassrooms.mddapi.models;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+
+/**
+ * Composite primary key of {@link UserTimeline}: a post appears at most once in a user's timeline.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class UserTimelineId implements Serializable {
+    private Long userId;
+    private Long postId;
+}
@@ -1,10 +1,29 @@
 package com.openclassrooms.mddapi.repositories;
 
 import com.openclassrooms.mddapi.models.Comment;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.CrudRepository;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.List;
+
 @Repository
 public interface CommentRepository extends CrudRepository<Comment, Long> {
-    Iterable<Comment> findByPostId(Long postId);
+    String PAGE_QUERY = "select c from Comment c where c.post.id = :postId";
+
+    @EntityGraph(Comment.WITH_USER_GRAPH)
+    @Query(PAGE_QUERY + " order by c.createdAt asc, c.id asc")
+    List<Comment> findFirstPageByPostId(@Param("postId") Long postId, Pageable pageable);
+
+    @EntityGraph(Comment.WITH_USER_GRAPH)
+    @Query(PAGE_QUERY + " and (c.createdAt > :createdAt or (c.createdAt = :createdAt and c.id > :id))"
+            + " order by c.createdAt asc, c.id asc")
+    List<Comment> findPageByPostIdAfter(@Param("postId") Long postId,
+                                        @Param("createdAt") LocalDateTime createdAt,
+                                        @Param("id") Long id,
+                                        Pageable pageable);
 }
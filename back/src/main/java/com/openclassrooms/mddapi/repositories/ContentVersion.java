@@ -0,0 +1,29 @@
+package com.openclassrooms.mddapi.repositories;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+
+/**
+ * Projection of a cheap aggregate describing the current state of a set of rows:
+ * the most recent modification timestamp and the number of rows.
+ *
+ * <p>Used to build HTTP validators (ETags) without loading or converting the rows themselves.</p>
+ */
+public interface ContentVersion {
+    LocalDateTime getLastUpdatedAt();
+
+    Long getCount();
+
+    /**
+     * Build an entity tag from this version.
+     *
+     * @param prefix discriminator for the resource and its variant (page, filters...)
+     * @return an entity tag value, without the surrounding quotes
+     */
+    default String toETag(String prefix) {
+        LocalDateTime lastUpdatedAt = getLastUpdatedAt();
+        long lastUpdatedMicros = lastUpdatedAt == null ? 0
+                : lastUpdatedAt.toEpochSecond(ZoneOffset.UTC) * 1_000_000 + lastUpdatedAt.getNano() / 1_000;
+        return prefix + "-" + Long.toHexString(lastUpdatedMicros) + "-" + getCount();
+    }
+}
@@ -1,15 +1,117 @@
 package com.openclassrooms.mddapi.repositories;
 
+import com.openclassrooms.mddapi.DTO.PostListDto;
 import com.openclassrooms.mddapi.models.Post;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.CrudRepository;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
 import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
 public interface PostRepository extends CrudRepository<Post, Long> {
-   Iterable<Post> findBySubjectIdIn(Collection<Long> ids);
+   String FEED_PROJECTION = "select new com.openclassrooms.mddapi.DTO.PostListDto("
+           + "p.id, p.title, p.excerpt, p.updatedAt, p.commentCount, u.id, u.name, p.subject.id)"
+           + " from Post p join p.user u";
+
+   /**
+    * Native counterpart of {@link #FEED_PROJECTION} reading the feed of a single subject, in the
+    * column order of the {@code PostListDto} constructor. The subject is bound to {@code :subject}
+    * followed by a suffix, so several of these selects can be combined in one statement.
+    */
+   String SUBJECT_FEED_SQL = "select p.id, p.title, p.excerpt, p.updated_at, p.comment_count, u.id as user_id, u.name, p.subject_id"
+           + " from posts p join users u on u.id = p.user_id where p.subject_id = :subject";
+
+   /**
+    * Native keyset condition restricting {@link #SUBJECT_FEED_SQL} to the posts after {@code (:updatedAt, :id)} in feed order.
+    */
+   String SUBJECT_FEED_AFTER_SQL = " and (p.updated_at < :updatedAt or (p.updated_at = :updatedAt and p.id < :id))";
+
+   /**
+    * Build the native statement reading one feed page per subject, combined with {@code UNION ALL}: each
+    * part is a {@link #SUBJECT_FEED_SQL} whose subject is bound to {@code :subject0}, {@code :subject1}...,
+    * read in feed order from the {@code (subject_id, updated_at, id)} index up to {@code limit} rows.
+    *
+    * @param subjectCount number of subjects, at least one
+    * @param afterCursor whether the parts are restricted by {@link #SUBJECT_FEED_AFTER_SQL}
+    * @param limit maximum number of rows read per subject
+    * @return the native SQL statement
+    */
+   static String subjectFeedsSql(int subjectCount, boolean afterCursor, int limit) {
+      StringBuilder sql = new StringBuilder();
+      for (int i = 0; i < subjectCount; i++) {
+         if (i > 0) {
+            sql.append(" union all ");
+         }
+         sql.append('(').append(SUBJECT_FEED_SQL).append(i);
+         if (afterCursor) {
+            sql.append(SUBJECT_FEED_AFTER_SQL);
+         }
+         sql.append(" order by p.updated_at desc, p.id desc limit ").append(limit).append(')');
+      }
+      return sql.toString();
+   }
+
+   /**
+    * JDBC fetch size asking MySQL Connector/J to stream rows one by one instead of buffering the result set.
+    */
+   String STREAMING_FETCH_SIZE = "" + Integer.MIN_VALUE;
+
+   @Query(FEED_PROJECTION + " where p.subject.id in :subjectIds order by p.updatedAt desc, p.id desc")
+   List<PostListDto> findFeedFirstPage(@Param("subjectIds") Collection<Long> subjectIds, Pageable pageable);
+
+   @Query(FEED_PROJECTION + " where p.subject.id in :subjectIds"
+           + " and (p.updatedAt < :updatedAt or (p.updatedAt = :updatedAt and p.id < :id))"
+           + " order by p.updatedAt desc, p.id desc")
+   List<PostListDto> findFeedPageAfter(@Param("subjectIds") Collection<Long> subjectIds,
+                                       @Param("updatedAt") LocalDateTime updatedAt,
+                                       @Param("id") Long id,
+                                       Pageable pageable);
+
+   @Query(FEED_PROJECTION + " where p.subject.id in :subjectIds"
+           + " and (p.updatedAt > :updatedAt or (p.updatedAt = :updatedAt and p.id > :id))"
+           + " order by p.updatedAt asc, p.id asc")
+   List<PostListDto> findFeedChangedSince(@Param("subjectIds") Collection<Long> subjectIds,
+                                          @Param("updatedAt") LocalDateTime updatedAt,
+                                          @Param("id") Long id,
+                                          Pageable pageable);
+
+   @EntityGraph(Post.DETAIL_GRAPH)
+   Optional<Post> findDetailById(Long id);
+
+   @Query(FEED_PROJECTION + " where p.id = :postId")
+   Optional<PostListDto> findFeedItemById(@Param("postId") Long postId);
+
+   @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = STREAMING_FETCH_SIZE))
+   @Query(FEED_PROJECTION + " where p.subject.id in :subjectIds order by p.updatedAt desc, p.id desc")
+   Stream<PostListDto> streamFeed(@Param("subjectIds") Collection<Long> subjectIds);
+
+   @Query("select greatest(p.updatedAt, coalesce(max(c.createdAt), p.updatedAt)) as lastUpdatedAt, count(c) as count"
+           + " from Post p left join p.comments c where p.id = :postId group by p.id, p.updatedAt")
+   Optional<ContentVersion> findPostVersion(@Param("postId") Long postId);
+
+   @Modifying
+   @Query("update Post p set p.commentCount = p.commentCount + 1 where p.id = :postId")
+   int incrementCommentCount(@Param("postId") Long postId);
+
+   @Query("select max(p.id) from Post p")
+   Long findMaxId();
+
+   @Modifying
+   @Query(value = "update posts p set p.comment_count = (select count(*) from comments c where c.post_id = p.id)"
+           + " where p.id > :fromId and p.id <= :toId"
+           + " and p.comment_count <> (select count(*) from comments c where c.post_id = p.id)",
+           nativeQuery = true)
+   int reconcileCommentCounts(@Param("fromId") long fromId, @Param("toId") long toId);
 }
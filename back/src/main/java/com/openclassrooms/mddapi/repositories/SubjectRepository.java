@@ -1,9 +1,47 @@
 package com.openclassrooms.mddapi.repositories;
 
+import com.openclassrooms.mddapi.DTO.SubjectDto;
 import com.openclassrooms.mddapi.models.Subject;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.CrudRepository;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.List;
+
 @Repository
 public interface SubjectRepository extends CrudRepository<Subject, Long> {
+    // counter versions only grow, so every counter change alters the version of the catalog; subjects are never deleted
+    @Query("select max(s.updatedAt) as lastUpdatedAt, count(s) + coalesce(sum(s.countersVersion), 0) as count from Subject s")
+    ContentVersion findCatalogVersion();
+
+    long countByIdIn(Collection<Long> ids);
+
+    // at most one subscription matches each subject thanks to the unique (user_id, subject_id) constraint
+    @Query("select new com.openclassrooms.mddapi.DTO.SubjectDto(s.id, s.title, s.description, s.subscriberCount,"
+            + " case when sub.id is null then false else true end)"
+            + " from Subject s left join Subscription sub on sub.subject = s and sub.user.id = :userId"
+            + " order by s.id")
+    List<SubjectDto> findAllWithSubscriptionState(@Param("userId") Long userId);
+
+    @Modifying
+    @Query("update Subject s set s.subscriberCount = s.subscriberCount + 1, s.countersVersion = s.countersVersion + 1 where s.id in :subjectIds")
+    int incrementSubscriberCounts(@Param("subjectIds") Collection<Long> subjectIds);
+
+    @Modifying
+    @Query("update Subject s set s.subscriberCount = s.subscriberCount - 1, s.countersVersion = s.countersVersion + 1 where s.id in :subjectIds and s.subscriberCount > 0")
+    int decrementSubscriberCounts(@Param("subjectIds") Collection<Long> subjectIds);
+
+    @Query("select max(s.id) from Subject s")
+    Long findMaxId();
+
+    @Modifying
+    @Query(value = "update subjects s set s.subscriber_count = (select count(*) from subscriptions sub where sub.subject_id = s.id),"
+            + " s.counters_version = s.counters_version + 1"
+            + " where s.id > :fromId and s.id <= :toId"
+            + " and s.subscriber_count <> (select count(*) from subscriptions sub where sub.subject_id = s.id)",
+            nativeQuery = true)
+    int reconcileSubscriberCounts(@Param("fromId") long fromId, @Param("toId") long toId);
 }
@@ -1,13 +1,39 @@
 package com.openclassrooms.mddapi.repositories;
 
 import com.openclassrooms.mddapi.models.Subscription;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.CrudRepository;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
-import java.util.Optional;
+import java.util.Collection;
+import java.util.List;
 
 @Repository
 public interface SubscriptionRepository extends CrudRepository<Subscription, Long> {
     Iterable<Subscription> findByUserId(Long userId);
-    Optional<Subscription> findByUserIdAndSubjectId(Long userId, Long subjectId);
+
+    @Query("select s.subject.id from Subscription s where s.user.id = :userId")
+    List<Long> findSubjectIdsByUserId(@Param("userId") Long userId);
+
+    @Query("select s.subject.id from Subscription s where s.user.id = :userId and s.subject.id in :subjectIds")
+    List<Long> findSubjectIdsByUserIdAndSubjectIdIn(@Param("userId") Long userId, @Param("subjectIds") Collection<Long> subjectIds);
+
+    @Query("select s.id from Subscription s where s.user.id = :userId order by s.id")
+    List<Long> findIdsByUserIdOrderById(@Param("userId") Long userId);
+
+    @Query("select s.user.id from Subscription s where s.subject.id = :subjectId")
+    List<Long> findUserIdsBySubjectId(@Param("subjectId") Long subjectId);
+
+    // rows that already exist are skipped by the unique (user_id, subject_id) constraint, unknown subjects by the join
+    @Modifying
+    @Query(value = "insert ignore into subscriptions (user_id, subject_id)"
+            + " select :userId, s.id from subjects s where s.id in (:subjectIds)",
+            nativeQuery = true)
+    int insertIgnoringDuplicates(@Param("userId") Long userId, @Param("subjectIds") Collection<Long> subjectIds);
+
+    @Modifying
+    @Query("delete from Subscription s where s.user.id = :userId and s.subject.id in :subjectIds")
+    int deleteByUserIdAndSubjectIdIn(@Param("userId") Long userId, @Param("subjectIds") Collection<Long> subjectIds);
 }
@@ -0,0 +1,56 @@
+package com.openclassrooms.mddapi.repositories;
+
+import com.openclassrooms.mddapi.DTO.PostListDto;
+import com.openclassrooms.mddapi.models.UserTimeline;
+import com.openclassrooms.mddapi.models.UserTimelineId;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.CrudRepository;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.stream.Stream;
+
+@Repository
+public interface UserTimelineRepository extends CrudRepository<UserTimeline, UserTimelineId> {
+    String TIMELINE_PROJECTION = "select new com.openclassrooms.mddapi.DTO.PostListDto("
+            + "p.id, p.title, p.excerpt, p.updatedAt, p.commentCount, u.id, u.name, p.subject.id)"
+            + " from UserTimeline t join Post p on p.id = t.postId join p.user u";
+
+    @Query(TIMELINE_PROJECTION + " where t.userId = :userId order by t.ts desc, t.postId desc")
+    List<PostListDto> findTimelineFirstPage(@Param("userId") Long userId, Pageable pageable);
+
+    @Query(TIMELINE_PROJECTION + " where t.userId = :userId"
+            + " and (t.ts < :ts or (t.ts = :ts and t.postId < :postId))"
+            + " order by t.ts desc, t.postId desc")
+    List<PostListDto> findTimelinePageAfter(@Param("userId") Long userId,
+                                            @Param("ts") LocalDateTime ts,
+                                            @Param("postId") Long postId,
+                                            Pageable pageable);
+
+    // the join with the subscription inserts nothing once the user has unsubscribed again
+    @Modifying
+    @Query(value = "insert ignore into user_timeline (user_id, post_id, ts)"
+            + " select s.user_id, p.id, p.updated_at from subscriptions s join posts p on p.subject_id = s.subject_id"
+            + " where s.user_id = :userId and s.subject_id = :subjectId"
+            + " order by p.updated_at desc, p.id desc limit :limit",
+            nativeQuery = true)
+    int backfillSubject(@Param("userId") Long userId, @Param("subjectId") Long subjectId, @Param("limit") int limit);
+
+    @Modifying
+    @Query(value = "delete t from user_timeline t join posts p on p.id = t.post_id"
+            + " where t.user_id = :userId and p.subject_id in (:subjectIds)",
+            nativeQuery = true)
+    int pruneSubjects(@Param("userId") Long userId, @Param("subjectIds") Collection<Long> subjectIds);
+
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = PostRepository.STREAMING_FETCH_SIZE))
+    @Query(TIMELINE_PROJECTION + " where t.userId = :userId order by t.ts desc, t.postId desc")
+    Stream<PostListDto> streamTimeline(@Param("userId") Long userId);
+}
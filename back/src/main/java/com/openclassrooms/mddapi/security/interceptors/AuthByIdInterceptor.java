@@ -10,7 +10,7 @@ import org.springframework.web.servlet.HandlerInterceptor;
 
 /**
  * HTTP interceptor for JWT-based authentication by user ID.
- * Validates Bearer tokens and extracts user ID for authenticated requests.
+ * Extracts the user ID from the Bearer token already validated by Spring Security for authenticated requests.
  */
 @Component
 public class AuthByIdInterceptor implements HandlerInterceptor {
@@ -41,7 +41,7 @@ public class AuthByIdInterceptor implements HandlerInterceptor {
             response.setStatus(HttpServletResponse.SC_UNAUTHORIZED);
             return false;
         }
-        Long userId = authenticationService.handleUserFromToken(authHeader).getId();
+        Long userId = authenticationService.getAuthenticatedUserId();
         if(userId == null) {
             response.setStatus(HttpServletResponse.SC_UNAUTHORIZED);
             return false;
@@ -1,14 +1,15 @@
 package com.openclassrooms.mddapi.security.services;
 
 import com.openclassrooms.mddapi.DTO.LoginUserDto;
+import com.openclassrooms.mddapi.caches.IdentityCache;
 import jakarta.servlet.http.HttpServletRequest;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.Authentication;
 import com.openclassrooms.mddapi.models.User;
 import com.openclassrooms.mddapi.services.UserService;
-import org.springframework.security.core.userdetails.UsernameNotFoundException;
+import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.oauth2.jwt.Jwt;
-import org.springframework.security.oauth2.jwt.JwtDecoder;
+import org.springframework.security.oauth2.server.resource.authentication.JwtAuthenticationToken;
 import org.springframework.stereotype.Service;
 
 import java.util.List;
@@ -16,14 +17,14 @@ import java.util.List;
 @Service
 public class AuthenticationService {
 
-    private final JwtDecoder jwtDecoder;
     private final JWTService jwtService;
     private final UserService userService;
+    private final PasswordHashingService passwordHashingService;
 
-    public AuthenticationService(JwtDecoder jwtDecoder, JWTService jwtService, UserService userService) {
-        this.jwtDecoder = jwtDecoder;
+    public AuthenticationService(JWTService jwtService, UserService userService, PasswordHashingService passwordHashingService) {
         this.jwtService = jwtService;
         this.userService = userService;
+        this.passwordHashingService = passwordHashingService;
     }
 
     /**
@@ -47,42 +48,49 @@ public class AuthenticationService {
 
     /**
      * Handles authentication by verifying user credentials and creating an authentication token.
-     * @param user
+     * @param userProfile
      * @param loginUserDto
      * @return
      * @throws IllegalArgumentException if user is not found or credentials are incorrect
+     * @throws PasswordHashingBusyException if the password hashing executor is saturated
      * List.of() can be replaced with roles (ROLE_USER, ROLE_ADMIN) or authorities if needed
      * null credentials (password) in the token for security reasons
      */
-    public Authentication handleUsernamePasswordAuthenticationToken(LoginUserDto loginUserDto, User user) {
+    public Authentication handleUsernamePasswordAuthenticationToken(LoginUserDto loginUserDto, IdentityCache.UserProfile userProfile) {
 
-        if(!userService.getPasswordEncoder().matches(loginUserDto.getPassword(), user.getPassword())){
+        if(!passwordHashingService.matches(loginUserDto.getPassword(), userProfile.passwordHash())){
             throw new IllegalArgumentException("User not found or incorrect credentials.");
         }
         return new UsernamePasswordAuthenticationToken(
-                user.getEmail(),
+                userProfile.email(),
                 null,
                 List.of()
         );
     }
 
     /**
-     * Extracts the user from the JWT token present in the Authorization header.
-     * @param authorizationHeader The Authorization header containing the Bearer token.
-     * @return The User associated with the token.
-     * @throws UsernameNotFoundException if the user email is not found in the token or if the user does not exist.
+     * Extracts the user id from the JWT already validated by the resource server for the current request.
+     * The token is neither decoded again nor checked against the database; tokens issued before the
+     * user id claim existed fall back to a lookup by email.
+     * @return The user id, or null if the request is not authenticated with a JWT or the user does not exist.
      */
-    public User handleUserFromToken(String authorizationHeader) {
-        String token = authorizationHeader.replace("Bearer ", "");
-        Jwt jwt = this.jwtDecoder.decode(token);
-        String userMail = this.jwtService.getUserMailFromToken(jwt);
+    public Long getAuthenticatedUserId() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (!(authentication instanceof JwtAuthenticationToken jwtAuthenticationToken)) {
+            return null;
+        }
 
-        if (userMail == null) {
-            throw new UsernameNotFoundException("User email not found in token");
+        Jwt jwt = jwtAuthenticationToken.getToken();
+        Long userId = this.jwtService.getUserIdFromToken(jwt);
+        if (userId != null) {
+            return userId;
         }
 
-        return this.userService.findByEmail(userMail)
-                .orElseThrow(() -> new UsernameNotFoundException("User not found"));
+        String userMail = this.jwtService.getUserMailFromToken(jwt);
+        if (userMail == null) {
+            return null;
+        }
+        return this.userService.findProfileByEmail(userMail).map(IdentityCache.UserProfile::id).orElse(null);
     }
 
     public Long getUserIdFromHttpServletRequest(HttpServletRequest request) {
@@ -11,6 +11,10 @@ import java.util.Map;
 
 @Service
 public class JWTService {
+    /**
+     * Name of the claim carrying the user id, so that requests can be attributed without a user lookup.
+     */
+    public static final String USER_ID_CLAIM = "userId";
 
     private final JwtEncoder jwtEncoder;
 
@@ -20,17 +24,20 @@ public class JWTService {
 
     /**
      * Generates a JWT token for the given authentication.
-     * The token includes the issuer, issued at time, expiration time (1 day), and subject (username).
+     * The token includes the issuer, issued at time, expiration time (1 day), subject (username)
+     * and the user id claim.
      *
      * @param authentication the authentication object containing user details
+     * @param userId the identifier of the authenticated user
      * @return the generated JWT token as a string
      */
-    public String generateToken(Authentication authentication) {
+    public String generateToken(Authentication authentication, Long userId) {
         Instant now = Instant.now();
         JwtClaimsSet claims = JwtClaimsSet.builder()
                 .issuer("self").issuedAt(now)
                 .expiresAt(now.plus(1, ChronoUnit.DAYS))
-                .subject(authentication.getName()).build();
+                .subject(authentication.getName())
+                .claim(USER_ID_CLAIM, userId).build();
 
         JwtEncoderParameters jwtEncoderParameters = JwtEncoderParameters.from(JwsHeader.with(MacAlgorithm.HS256).build(), claims);
 
@@ -47,4 +54,15 @@ public class JWTService {
     public String getUserMailFromToken(Jwt jwt) {
         return jwt.getSubject();
     }
+
+    /**
+     * Reads the user id claim of an already validated token.
+     *
+     * @param jwt the decoded token
+     * @return the user id, or null for tokens issued before the claim existed
+     */
+    public Long getUserIdFromToken(Jwt jwt) {
+        Object userId = jwt.getClaim(USER_ID_CLAIM);
+        return userId instanceof Number number ? number.longValue() : null;
+    }
 }
\ No newline at end of file
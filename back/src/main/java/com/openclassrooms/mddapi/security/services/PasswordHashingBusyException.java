@@ -0,0 +1,24 @@
+package com.openclassrooms.mddapi.security.services;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+/**
+ * Thrown when the password hashing executor is saturated. Answered with 503 Service Unavailable
+ * and a {@code Retry-After} header, so that the client backs off instead of piling up requests.
+ */
+public class PasswordHashingBusyException extends ResponseStatusException {
+    private static final String RETRY_AFTER_SECONDS = "1";
+
+    public PasswordHashingBusyException() {
+        super(HttpStatus.SERVICE_UNAVAILABLE, "Authentication service is busy, please retry.");
+    }
+
+    @Override
+    public HttpHeaders getHeaders() {
+        HttpHeaders headers = new HttpHeaders();
+        headers.set(HttpHeaders.RETRY_AFTER, RETRY_AFTER_SECONDS);
+        return headers;
+    }
+}
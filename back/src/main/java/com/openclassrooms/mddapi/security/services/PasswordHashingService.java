@@ -0,0 +1,123 @@
+package com.openclassrooms.mddapi.security.services;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Service running BCrypt hashing and verification on a dedicated, bounded executor.
+ *
+ * <p>BCrypt is deliberately CPU-heavy. Running it on request threads lets a burst of logins starve
+ * every other endpoint, so the work is handed to {@code orion.password.hashing.threads} threads
+ * behind a queue of {@code orion.password.hashing.queue-capacity} tasks. When the queue is full,
+ * or a task is not done within {@code orion.password.hashing.timeout}, a
+ * {@link PasswordHashingBusyException} is thrown right away. Queue depth, active threads, rejections
+ * and hashing time are published to Micrometer under {@code orion.password.hashing}.</p>
+ */
+@Service
+public class PasswordHashingService {
+    private final BCryptPasswordEncoder passwordEncoder;
+    private final ThreadPoolExecutor executor;
+    private final long timeoutMillis;
+    private final Timer encodeTimer;
+    private final Timer matchesTimer;
+    private final Counter rejections;
+
+    /**
+     * Construct a new {@code PasswordHashingService}.
+     *
+     * @param passwordEncoder encoder performing the BCrypt work
+     * @param meterRegistry registry receiving the executor and latency metrics
+     * @param threads number of threads dedicated to hashing
+     * @param queueCapacity maximum number of hashing tasks waiting for a thread
+     * @param timeout maximum time a request waits for its hashing task
+     */
+    public PasswordHashingService(BCryptPasswordEncoder passwordEncoder,
+                                  MeterRegistry meterRegistry,
+                                  @Value("${orion.password.hashing.threads:2}") int threads,
+                                  @Value("${orion.password.hashing.queue-capacity:50}") int queueCapacity,
+                                  @Value("${orion.password.hashing.timeout:5s}") Duration timeout) {
+        this.passwordEncoder = passwordEncoder;
+        this.timeoutMillis = timeout.toMillis();
+        this.executor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), new CustomizableThreadFactory("password-hashing-"),
+                new ThreadPoolExecutor.AbortPolicy());
+
+        this.encodeTimer = meterRegistry.timer("orion.password.hashing", "operation", "encode");
+        this.matchesTimer = meterRegistry.timer("orion.password.hashing", "operation", "matches");
+        this.rejections = meterRegistry.counter("orion.password.hashing.rejected");
+        Gauge.builder("orion.password.hashing.queue", executor, pool -> pool.getQueue().size()).register(meterRegistry);
+        Gauge.builder("orion.password.hashing.active", executor, ThreadPoolExecutor::getActiveCount).register(meterRegistry);
+    }
+
+    /**
+     * Hash a raw password.
+     *
+     * @param rawPassword the password to hash
+     * @return the BCrypt hash
+     * @throws PasswordHashingBusyException if the hashing executor is saturated
+     */
+    public String encode(String rawPassword) {
+        return submit(() -> encodeTimer.record(() -> passwordEncoder.encode(rawPassword)));
+    }
+
+    /**
+     * Check a raw password against a stored hash.
+     *
+     * @param rawPassword the password to check
+     * @param passwordHash the stored BCrypt hash
+     * @return {@code true} if the password matches
+     * @throws PasswordHashingBusyException if the hashing executor is saturated
+     */
+    public boolean matches(String rawPassword, String passwordHash) {
+        return submit(() -> matchesTimer.record(() -> passwordEncoder.matches(rawPassword, passwordHash)));
+    }
+
+    /**
+     * Stop the hashing threads when the application shuts down.
+     */
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    private <T> T submit(Callable<T> task) {
+        Future<T> future;
+        try {
+            future = executor.submit(task);
+        } catch (RejectedExecutionException exception) {
+            rejections.increment();
+            throw new PasswordHashingBusyException();
+        }
+
+        try {
+            return future.get(timeoutMillis, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException exception) {
+            future.cancel(true);
+            rejections.increment();
+            throw new PasswordHashingBusyException();
+        } catch (InterruptedException exception) {
+            future.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while hashing a password.", exception);
+        } catch (ExecutionException exception) {
+            throw new IllegalStateException("Password hashing failed.", exception.getCause());
+        }
+    }
+}
@@ -0,0 +1,318 @@
+package com.openclassrooms.mddapi.services;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.openclassrooms.mddapi.DTO.ImportRecordDto;
+import com.openclassrooms.mddapi.DTO.ImportReportDto;
+import com.openclassrooms.mddapi.caches.FeedCache;
+import com.openclassrooms.mddapi.caches.IdentityCache;
+import com.openclassrooms.mddapi.caches.PostDetailCache;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.jdbc.support.KeyHolder;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.util.StringUtils;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Service importing posts and comments in bulk from a newline-delimited JSON stream.
+ *
+ * <p>Lines are parsed one at a time, so the file is never held in memory. Rows are buffered and
+ * written with plain JDBC batches of {@code orion.import.batch-size} rows, each batch in its own
+ * transaction; with {@code rewriteBatchedStatements} enabled on the connection, the driver sends
+ * each batch as multi-row inserts. Post identifiers generated by a batch are read back from the
+ * same statement and used to resolve the {@code postRef} of later comments, and the comment
+ * counters of the touched posts are raised in the comment batch's transaction, after which their
+ * cached details are dropped. Only users listed in {@code orion.admin.emails} may import.</p>
+ *
+ * <p>A row rejected by the database is reported to the client with a generic message; the driver
+ * message, which may quote SQL and data, is only logged.</p>
+ */
+@Service
+public class BulkImportService {
+    private static final Logger LOGGER = LoggerFactory.getLogger(BulkImportService.class);
+    private static final String POST_TYPE = "post";
+    private static final String COMMENT_TYPE = "comment";
+    private static final String INSERT_POST = "insert into posts"
+            + " (title, content, excerpt, created_at, updated_at, comment_count, subject_id, user_id)"
+            + " values (?, ?, ?, ?, ?, 0, ?, ?)";
+    private static final String INSERT_COMMENT = "insert into comments"
+            + " (message, created_at, updated_at, post_id, user_id) values (?, ?, ?, ?, ?)";
+    private static final String INCREMENT_COMMENT_COUNT = "update posts set comment_count = comment_count + ? where id = ?";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final ObjectMapper objectMapper;
+    private final UserService userService;
+    private final FeedCache feedCache;
+    private final PostDetailCache postDetailCache;
+    private final int batchSize;
+    private final Set<String> adminEmails;
+
+    /**
+     * Construct a new {@code BulkImportService}.
+     *
+     * @param jdbcTemplate template used for the batched inserts
+     * @param transactionTemplate template running each batch in its own transaction
+     * @param objectMapper mapper used to parse each line of the import file
+     * @param userService service used to check that the importing user is an administrator
+     * @param feedCache cache of feed pages, cleared once the import is done
+     * @param postDetailCache cache of post details, dropped for the posts that received comments
+     * @param batchSize number of rows sent per JDBC batch
+     * @param adminEmails emails of the users allowed to import
+     */
+    public BulkImportService(JdbcTemplate jdbcTemplate,
+                             TransactionTemplate transactionTemplate,
+                             ObjectMapper objectMapper,
+                             UserService userService,
+                             FeedCache feedCache,
+                             PostDetailCache postDetailCache,
+                             @Value("${orion.import.batch-size:1000}") int batchSize,
+                             @Value("${orion.admin.emails:}") List<String> adminEmails) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.objectMapper = objectMapper;
+        this.userService = userService;
+        this.feedCache = feedCache;
+        this.postDetailCache = postDetailCache;
+        this.batchSize = batchSize;
+        this.adminEmails = adminEmails.stream()
+                .filter(StringUtils::hasText)
+                .map(email -> email.trim().toLowerCase())
+                .collect(Collectors.toSet());
+    }
+
+    /**
+     * Tell whether the given user may run bulk imports.
+     *
+     * @param userId identifier of the user
+     * @return {@code true} if the user's email is listed in {@code orion.admin.emails}
+     */
+    public boolean isAdmin(Long userId) {
+        return userService.findProfileById(userId)
+                .map(IdentityCache.UserProfile::email)
+                .map(email -> adminEmails.contains(email.toLowerCase()))
+                .orElse(false);
+    }
+
+    /**
+     * Import every post and comment of a newline-delimited JSON stream.
+     *
+     * <p>Batches are committed as they are written: when a line is rejected, the rows of the
+     * previous batches stay imported and the error message tells how many there are.</p>
+     *
+     * @param inputStream the NDJSON content, one {@code ImportRecordDto} per line
+     * @return an {@code ImportReportDto} with the inserted row counts and the throughput
+     * @throws IllegalArgumentException if a line is malformed or references an unknown post
+     * @throws IOException if the stream cannot be read
+     */
+    public ImportReportDto importNdjson(InputStream inputStream) throws IOException {
+        long start = System.nanoTime();
+        ImportRun run = new ImportRun();
+
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(inputStream, StandardCharsets.UTF_8))) {
+            String line;
+            int lineNumber = 0;
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                if (!StringUtils.hasText(line)) {
+                    continue;
+                }
+                run.add(new PendingRow(lineNumber, parse(line, lineNumber)));
+            }
+            run.flushPosts();
+            run.flushComments();
+        } catch (DataAccessException exception) {
+            LOGGER.warn("Bulk import rejected by the database after {} posts and {} comments",
+                    run.importedPosts, run.importedComments, exception);
+            throw new IllegalArgumentException("Import failed after " + run.importedPosts + " posts and "
+                    + run.importedComments + " comments: a row was rejected by the database"
+                    + " (unknown subject, user or post, or a value too long).", exception);
+        } catch (IllegalArgumentException exception) {
+            throw new IllegalArgumentException(exception.getMessage() + " (" + run.importedPosts + " posts and "
+                    + run.importedComments + " comments already imported)", exception);
+        } finally {
+            feedCache.invalidateAll();
+        }
+
+        long elapsedNanos = Math.max(1, System.nanoTime() - start);
+        ImportReportDto importReportDto = new ImportReportDto();
+        importReportDto.setPosts(run.importedPosts);
+        importReportDto.setComments(run.importedComments);
+        importReportDto.setElapsedMillis(elapsedNanos / 1_000_000);
+        importReportDto.setRowsPerSecond((run.importedPosts + run.importedComments) * 1_000_000_000L / elapsedNanos);
+        return importReportDto;
+    }
+
+    private ImportRecordDto parse(String line, int lineNumber) {
+        ImportRecordDto importRecordDto;
+        try {
+            importRecordDto = objectMapper.readValue(line, ImportRecordDto.class);
+        } catch (JsonProcessingException exception) {
+            throw new IllegalArgumentException("Malformed JSON on line " + lineNumber + ".", exception);
+        }
+
+        if (POST_TYPE.equals(importRecordDto.getType())) {
+            if (!StringUtils.hasText(importRecordDto.getTitle()) || !StringUtils.hasText(importRecordDto.getContent())
+                    || importRecordDto.getSubjectId() == null || importRecordDto.getUserId() == null) {
+                throw new IllegalArgumentException("title, content, subjectId and userId are required for the post on line " + lineNumber + ".");
+            }
+        } else if (COMMENT_TYPE.equals(importRecordDto.getType())) {
+            if (!StringUtils.hasText(importRecordDto.getMessage()) || importRecordDto.getUserId() == null
+                    || (importRecordDto.getPostId() == null && !StringUtils.hasText(importRecordDto.getPostRef()))) {
+                throw new IllegalArgumentException("message, userId and postId or postRef are required for the comment on line " + lineNumber + ".");
+            }
+        } else {
+            throw new IllegalArgumentException("Unknown type on line " + lineNumber + ", expected post or comment.");
+        }
+        return importRecordDto;
+    }
+
+    private static Timestamp timestampOf(ImportRecordDto importRecordDto, Timestamp defaultTimestamp) {
+        return importRecordDto.getCreatedAt() == null ? defaultTimestamp : Timestamp.valueOf(importRecordDto.getCreatedAt());
+    }
+
+    /**
+     * One line of the import file waiting for its batch, with its line number for error messages.
+     */
+    private record PendingRow(int lineNumber, ImportRecordDto importRecordDto) {
+    }
+
+    /**
+     * State of one import: pending batches, identifiers of the imported posts by reference and counts.
+     */
+    private final class ImportRun {
+        private final List<PendingRow> pendingPosts = new ArrayList<>(batchSize);
+        private final List<PendingRow> pendingComments = new ArrayList<>(batchSize);
+        private final Map<String, Long> postIdsByRef = new HashMap<>();
+        private long importedPosts;
+        private long importedComments;
+
+        private void add(PendingRow pendingRow) {
+            if (POST_TYPE.equals(pendingRow.importRecordDto().getType())) {
+                pendingPosts.add(pendingRow);
+                if (pendingPosts.size() >= batchSize) {
+                    flushPosts();
+                }
+            } else {
+                pendingComments.add(pendingRow);
+                if (pendingComments.size() >= batchSize) {
+                    // comments may reference posts still waiting in the post batch
+                    flushPosts();
+                    flushComments();
+                }
+            }
+        }
+
+        private void flushPosts() {
+            if (pendingPosts.isEmpty()) {
+                return;
+            }
+
+            Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+            KeyHolder keyHolder = new GeneratedKeyHolder();
+            transactionTemplate.executeWithoutResult(status -> jdbcTemplate.batchUpdate(
+                    connection -> connection.prepareStatement(INSERT_POST, Statement.RETURN_GENERATED_KEYS),
+                    new BatchPreparedStatementSetter() {
+                        @Override
+                        public void setValues(PreparedStatement preparedStatement, int i) throws SQLException {
+                            ImportRecordDto post = pendingPosts.get(i).importRecordDto();
+                            Timestamp createdAt = timestampOf(post, now);
+                            preparedStatement.setString(1, post.getTitle());
+                            preparedStatement.setString(2, post.getContent());
+                            preparedStatement.setString(3, PostService.buildExcerpt(post.getContent()));
+                            preparedStatement.setTimestamp(4, createdAt);
+                            preparedStatement.setTimestamp(5, createdAt);
+                            preparedStatement.setLong(6, post.getSubjectId());
+                            preparedStatement.setLong(7, post.getUserId());
+                        }
+
+                        @Override
+                        public int getBatchSize() {
+                            return pendingPosts.size();
+                        }
+                    },
+                    keyHolder));
+
+            List<Map<String, Object>> keys = keyHolder.getKeyList();
+            for (int i = 0; i < pendingPosts.size(); i++) {
+                String ref = pendingPosts.get(i).importRecordDto().getRef();
+                if (StringUtils.hasText(ref)) {
+                    postIdsByRef.put(ref, ((Number) keys.get(i).values().iterator().next()).longValue());
+                }
+            }
+            importedPosts += pendingPosts.size();
+            pendingPosts.clear();
+        }
+
+        private void flushComments() {
+            if (pendingComments.isEmpty()) {
+                return;
+            }
+
+            List<Long> postIds = new ArrayList<>(pendingComments.size());
+            Map<Long, Integer> addedCommentsByPost = new HashMap<>();
+            for (PendingRow pendingRow : pendingComments) {
+                ImportRecordDto comment = pendingRow.importRecordDto();
+                Long postId = comment.getPostId() != null ? comment.getPostId() : postIdsByRef.get(comment.getPostRef());
+                if (postId == null) {
+                    throw new IllegalArgumentException("Unknown postRef on line " + pendingRow.lineNumber() + ".");
+                }
+                postIds.add(postId);
+                addedCommentsByPost.merge(postId, 1, Integer::sum);
+            }
+
+            Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+            List<Map.Entry<Long, Integer>> counterUpdates = new ArrayList<>(addedCommentsByPost.entrySet());
+            transactionTemplate.executeWithoutResult(status -> {
+                jdbcTemplate.batchUpdate(INSERT_COMMENT, new BatchPreparedStatementSetter() {
+                    @Override
+                    public void setValues(PreparedStatement preparedStatement, int i) throws SQLException {
+                        ImportRecordDto comment = pendingComments.get(i).importRecordDto();
+                        Timestamp createdAt = timestampOf(comment, now);
+                        preparedStatement.setString(1, comment.getMessage());
+                        preparedStatement.setTimestamp(2, createdAt);
+                        preparedStatement.setTimestamp(3, createdAt);
+                        preparedStatement.setLong(4, postIds.get(i));
+                        preparedStatement.setLong(5, comment.getUserId());
+                    }
+
+                    @Override
+                    public int getBatchSize() {
+                        return pendingComments.size();
+                    }
+                });
+                jdbcTemplate.batchUpdate(INCREMENT_COMMENT_COUNT, counterUpdates, batchSize, (preparedStatement, counterUpdate) -> {
+                    preparedStatement.setInt(1, counterUpdate.getValue());
+                    preparedStatement.setLong(2, counterUpdate.getKey());
+                });
+            });
+
+            postDetailCache.invalidateAll(addedCommentsByPost.keySet());
+            importedComments += pendingComments.size();
+            pendingComments.clear();
+        }
+    }
+}
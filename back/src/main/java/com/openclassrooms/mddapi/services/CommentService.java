@@ -2,13 +2,16 @@ package com.openclassrooms.mddapi.services;
 
 import com.openclassrooms.mddapi.models.Comment;
 import com.openclassrooms.mddapi.repositories.CommentRepository;
+import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 
+import java.util.List;
+
 /**
  * Service responsible for comment operations such as retrieval and persistence.
  *
  * <p>Delegates persistence to {@code CommentRepository} and provides methods to
- * find comments by post id and to save comment entities.</p>
+ * read the comments of a post page by page and to save comment entities.</p>
  */
 @Service
 public class CommentService {
@@ -24,13 +27,19 @@ public class CommentService {
     }
 
     /**
-     * Find comments that belong to the specified post.
+     * Find one page of the comments of the specified post, oldest first, with their authors loaded
+     * in the same statement.
      *
      * @param postId identifier of the post whose comments should be retrieved
-     * @return an {@code Iterable} of {@code Comment} entities for the post
+     * @param cursor position after which to read, or {@code null} for the first page
+     * @param pageable limit of rows to read
+     * @return a {@code List} of {@code Comment} entities for the page
      */
-    public Iterable<Comment> findByPostId(Long postId) {
-        return commentRepository.findByPostId(postId);
+    public List<Comment> findPageByPostId(Long postId, KeysetCursor cursor, Pageable pageable) {
+        if (cursor == null) {
+            return commentRepository.findFirstPageByPostId(postId, pageable);
+        }
+        return commentRepository.findPageByPostIdAfter(postId, cursor.getTimestamp(), cursor.getId(), pageable);
     }
 
     /**
@@ -0,0 +1,84 @@
+package com.openclassrooms.mddapi.services;
+
+import com.openclassrooms.mddapi.repositories.PostRepository;
+import com.openclassrooms.mddapi.repositories.SubjectRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.function.BiFunction;
+
+/**
+ * Service repairing the denormalized comment and subscriber counters.
+ *
+ * <p>The counters are kept by atomic increments, which can drift if a row is changed outside the
+ * application. On the {@code orion.counters.reconciliation.cron} schedule, each table is walked by
+ * primary key ranges of {@code orion.counters.reconciliation.batch-size} rows, each range in its own
+ * short transaction, and only rows whose counter differs from the real count are rewritten. The
+ * number of repaired rows is published to Micrometer as {@code orion.counters.repaired}.</p>
+ */
+@Service
+public class CounterReconciliationService {
+    private final PostRepository postRepository;
+    private final SubjectRepository subjectRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final Counter repairedCommentCounts;
+    private final Counter repairedSubscriberCounts;
+    private final int batchSize;
+
+    /**
+     * Construct a new {@code CounterReconciliationService}.
+     *
+     * @param postRepository repository used to repair the comment counters
+     * @param subjectRepository repository used to repair the subscriber counters
+     * @param transactionTemplate template running each batch in its own transaction
+     * @param meterRegistry registry receiving the number of repaired rows
+     * @param batchSize width of the primary key range repaired per transaction
+     */
+    public CounterReconciliationService(PostRepository postRepository,
+                                        SubjectRepository subjectRepository,
+                                        TransactionTemplate transactionTemplate,
+                                        MeterRegistry meterRegistry,
+                                        @Value("${orion.counters.reconciliation.batch-size:1000}") int batchSize) {
+        this.postRepository = postRepository;
+        this.subjectRepository = subjectRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.repairedCommentCounts = meterRegistry.counter("orion.counters.repaired", "counter", "comment_count");
+        this.repairedSubscriberCounts = meterRegistry.counter("orion.counters.repaired", "counter", "subscriber_count");
+        this.batchSize = batchSize;
+    }
+
+    /**
+     * Recompute every comment and subscriber counter and fix those that drifted.
+     */
+    @Scheduled(cron = "${orion.counters.reconciliation.cron:0 30 3 * * *}")
+    public void reconcileCounters() {
+        repairedCommentCounts.increment(reconcile(postRepository.findMaxId(), postRepository::reconcileCommentCounts));
+        repairedSubscriberCounts.increment(reconcile(subjectRepository.findMaxId(), subjectRepository::reconcileSubscriberCounts));
+    }
+
+    /**
+     * Apply a repair statement to consecutive primary key ranges up to the highest identifier.
+     *
+     * @param maxId highest identifier of the table, or {@code null} if it is empty
+     * @param repair statement repairing the rows whose identifier is in {@code (fromId, toId]}
+     * @return the number of repaired rows
+     */
+    private int reconcile(Long maxId, BiFunction<Long, Long, Integer> repair) {
+        if (maxId == null) {
+            return 0;
+        }
+
+        int repaired = 0;
+        for (long fromId = 0; fromId < maxId; fromId += batchSize) {
+            long toId = fromId + batchSize;
+            long batchFromId = fromId;
+            Integer batchRepaired = transactionTemplate.execute(status -> repair.apply(batchFromId, toId));
+            repaired += batchRepaired == null ? 0 : batchRepaired;
+        }
+        return repaired;
+    }
+}
@@ -0,0 +1,36 @@
+package com.openclassrooms.mddapi.services;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+
+/**
+ * Builds entity tags from a digest of the representation they describe.
+ *
+ * <p>Used where no cheap database aggregate describes the representation: the SHA-256 digest makes
+ * two different representations sharing a tag practically impossible, unlike a 32-bit hash code.</p>
+ */
+final class EntityTags {
+
+    private EntityTags() {
+    }
+
+    /**
+     * Build an entity tag from the SHA-256 digest of a representation.
+     *
+     * @param prefix discriminator for the resource
+     * @param representation canonical text of the representation, every field separated unambiguously
+     * @return an entity tag value, without the surrounding quotes
+     */
+    static String sha256(String prefix, CharSequence representation) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256")
+                    .digest(representation.toString().getBytes(StandardCharsets.UTF_8));
+            return prefix + "-" + HexFormat.of().formatHex(digest);
+        } catch (NoSuchAlgorithmException exception) {
+            // every Java platform is required to provide SHA-256
+            throw new IllegalStateException(exception);
+        }
+    }
+}
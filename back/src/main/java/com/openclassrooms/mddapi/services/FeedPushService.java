@@ -0,0 +1,323 @@
+package com.openclassrooms.mddapi.services;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.openclassrooms.mddapi.caches.SubscriptionIndex;
+import com.openclassrooms.mddapi.events.PostCreatedEvent;
+import com.openclassrooms.mddapi.events.SubscriptionChangedEvent;
+import com.openclassrooms.mddapi.repositories.PostRepository;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Service pushing new posts to connected users through Server-Sent Events.
+ *
+ * <p>Each user keeps at most one open connection: opening a new one closes the previous one. The
+ * connection is registered under every subject its user is subscribed to, so that
+ * publishing a post only visits the connections of that subject's subscribers. The index follows
+ * subscription changes. Events are never written on the caller's thread: each connection buffers at
+ * most {@code orion.feed.push.queue-capacity} events and a small pool of
+ * {@code orion.feed.push.sender-threads} threads writes them. A connection whose buffer is full is
+ * closed, so a slow client cannot accumulate memory; it can reconnect and catch up with the
+ * {@code since} endpoint. A client that stops reading blocks the send in progress, so a send lasting
+ * longer than {@code orion.feed.push.send-timeout} evicts its connection and interrupts the sender,
+ * which then completes the connection with an error: stalled clients cannot pin every sender thread.
+ * Connections are only ever completed by their sender, since completing an emitter waits for the send
+ * in progress. A comment line is sent every
+ * {@code orion.feed.push.heartbeat-interval} to keep idle connections open through proxies.</p>
+ *
+ * <p>A post is serialized once per fan-out and the buffers only hold immutable {@code PushEvent}
+ * values: the {@code SseEventBuilder} written to a connection is created by its sender for that
+ * single send, since a builder accumulates its lines and cannot be shared between threads.</p>
+ */
+@Service
+public class FeedPushService {
+    private static final String NEW_POST_EVENT = "post";
+    private static final PushEvent HEARTBEAT = new PushEvent(null, null, null);
+
+    private final PostRepository postRepository;
+    private final SubscriptionIndex subscriptionIndex;
+    private final ObjectMapper objectMapper;
+    private final long connectionTimeoutMillis;
+    private final long sendTimeoutNanos;
+    private final int queueCapacity;
+    private final ExecutorService senderExecutor;
+
+    private final Map<Long, FeedConnection> connectionsByUser = new ConcurrentHashMap<>();
+    private final Map<Long, Set<FeedConnection>> connectionsBySubject = new ConcurrentHashMap<>();
+    private final Set<FeedConnection> drainingConnections = ConcurrentHashMap.newKeySet();
+
+    /**
+     * Construct a new {@code FeedPushService}.
+     *
+     * @param postRepository repository used to project the pushed post
+     * @param subscriptionIndex index giving the subjects of a connecting user
+     * @param objectMapper the mapper used to serialize a pushed post once for all its recipients
+     * @param connectionTimeout maximum lifetime of a connection before the client has to reconnect
+     * @param sendTimeout maximum duration of a single send before the connection is evicted
+     * @param queueCapacity maximum number of events buffered per connection
+     * @param senderThreads number of threads writing events to the connections
+     */
+    public FeedPushService(PostRepository postRepository,
+                           SubscriptionIndex subscriptionIndex,
+                           ObjectMapper objectMapper,
+                           @Value("${orion.feed.push.timeout:30m}") Duration connectionTimeout,
+                           @Value("${orion.feed.push.send-timeout:10s}") Duration sendTimeout,
+                           @Value("${orion.feed.push.queue-capacity:32}") int queueCapacity,
+                           @Value("${orion.feed.push.sender-threads:4}") int senderThreads) {
+        this.postRepository = postRepository;
+        this.subscriptionIndex = subscriptionIndex;
+        this.objectMapper = objectMapper;
+        this.connectionTimeoutMillis = connectionTimeout.toMillis();
+        this.sendTimeoutNanos = sendTimeout.toNanos();
+        this.queueCapacity = queueCapacity;
+        this.senderExecutor = Executors.newFixedThreadPool(senderThreads, new CustomizableThreadFactory("feed-push-"));
+    }
+
+    /**
+     * Open a new event stream for the user and register it under the user's subscribed subjects.
+     * A stream previously opened by the same user is closed.
+     *
+     * @param userId identifier of the connecting user
+     * @return the {@code SseEmitter} to return from the controller
+     */
+    public SseEmitter connect(Long userId) {
+        SseEmitter emitter = new SseEmitter(connectionTimeoutMillis);
+        FeedConnection connection = new FeedConnection(userId, emitter, queueCapacity);
+
+        emitter.onCompletion(() -> unregister(connection));
+        emitter.onTimeout(() -> unregister(connection));
+        emitter.onError(error -> unregister(connection));
+
+        FeedConnection previous = connectionsByUser.put(userId, connection);
+        if (previous != null) {
+            close(previous);
+        }
+        for (long subjectId : subscriptionIndex.getSubjectIds(userId)) {
+            addToSubject(connection, subjectId);
+        }
+        return emitter;
+    }
+
+    /**
+     * Push a committed post to every connection of its subject's subscribers.
+     *
+     * <p>Runs asynchronously so that post creation does not wait for the fan-out.</p>
+     *
+     * @param event the event describing the created post
+     */
+    @Async
+    @TransactionalEventListener
+    public void onPostCreated(PostCreatedEvent event) {
+        Set<FeedConnection> connections = connectionsBySubject.get(event.getSubjectId());
+        if (connections == null || connections.isEmpty()) {
+            return;
+        }
+
+        postRepository.findFeedItemById(event.getPostId()).ifPresent(postListDto -> {
+            PushEvent pushEvent = new PushEvent(NEW_POST_EVENT, String.valueOf(postListDto.getId()), serialize(postListDto));
+            for (FeedConnection connection : connections) {
+                offer(connection, pushEvent);
+            }
+        });
+    }
+
+    /**
+     * Keep the subject index of the user's open connections in line with their subscriptions.
+     *
+     * @param event the event describing the subscription change
+     */
+    @TransactionalEventListener
+    public void onSubscriptionChanged(SubscriptionChangedEvent event) {
+        FeedConnection connection = connectionsByUser.get(event.getUserId());
+        if (connection == null) {
+            return;
+        }
+
+        if (event.isSubscribed()) {
+            addToSubject(connection, event.getSubjectId());
+        } else {
+            removeFromSubject(connection, event.getSubjectId());
+        }
+    }
+
+    /**
+     * Send a heartbeat comment to every open connection.
+     */
+    @Scheduled(fixedRateString = "${orion.feed.push.heartbeat-interval:15s}")
+    public void sendHeartbeats() {
+        connectionsByUser.values().forEach(connection -> offer(connection, HEARTBEAT));
+    }
+
+    /**
+     * Evict the connections whose send has lasted longer than the send timeout and interrupt their
+     * sender, so that a client which stopped reading does not keep a sender thread.
+     */
+    @Scheduled(fixedDelayString = "${orion.feed.push.send-timeout:10s}")
+    public void evictStalledConnections() {
+        long now = System.nanoTime();
+        for (FeedConnection connection : drainingConnections) {
+            if (now - connection.sendStartedNanos > sendTimeoutNanos) {
+                close(connection);
+                synchronized (connection) {
+                    if (connection.sender != null) {
+                        connection.sender.interrupt();
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Stop the sender threads when the application shuts down.
+     */
+    @PreDestroy
+    public void shutdown() {
+        senderExecutor.shutdownNow();
+    }
+
+    // buffer the event and make sure a sender drains the connection; a full buffer means a slow client, which is dropped
+    private void offer(FeedConnection connection, PushEvent pushEvent) {
+        if (!connection.queue.offer(pushEvent)) {
+            close(connection);
+            return;
+        }
+        scheduleDrain(connection);
+    }
+
+    // stop routing events to the connection and let its sender complete it
+    private void close(FeedConnection connection) {
+        unregister(connection);
+        if (connection.closed.compareAndSet(false, true)) {
+            scheduleDrain(connection);
+        }
+    }
+
+    private void scheduleDrain(FeedConnection connection) {
+        if (connection.draining.compareAndSet(false, true)) {
+            senderExecutor.execute(() -> drain(connection));
+        }
+    }
+
+    private void drain(FeedConnection connection) {
+        synchronized (connection) {
+            connection.sender = Thread.currentThread();
+        }
+        connection.sendStartedNanos = System.nanoTime();
+        drainingConnections.add(connection);
+        try {
+            PushEvent pushEvent;
+            while (!connection.closed.get() && (pushEvent = connection.queue.poll()) != null) {
+                connection.sendStartedNanos = System.nanoTime();
+                connection.emitter.send(pushEvent.toSseEvent());
+            }
+            if (connection.closed.get()) {
+                connection.emitter.complete();
+                return;
+            }
+        } catch (IOException | RuntimeException exception) {
+            connection.closed.set(true);
+            connection.emitter.completeWithError(exception);
+            unregister(connection);
+            return;
+        } finally {
+            drainingConnections.remove(connection);
+            synchronized (connection) {
+                connection.sender = null;
+            }
+            // clear an interrupt aimed at a stalled send of this connection before the thread is reused
+            Thread.interrupted();
+            connection.draining.set(false);
+        }
+
+        // an event may have been offered, or the connection closed, after the last check but before the flag was released
+        if (!connection.queue.isEmpty() || connection.closed.get()) {
+            scheduleDrain(connection);
+        }
+    }
+
+    private String serialize(Object data) {
+        try {
+            return objectMapper.writeValueAsString(data);
+        } catch (JsonProcessingException exception) {
+            throw new IllegalStateException("Pushed post could not be serialized.", exception);
+        }
+    }
+
+    private void addToSubject(FeedConnection connection, Long subjectId) {
+        connection.subjectIds.add(subjectId);
+        connectionsBySubject.computeIfAbsent(subjectId, key -> ConcurrentHashMap.newKeySet()).add(connection);
+    }
+
+    private void removeFromSubject(FeedConnection connection, Long subjectId) {
+        connection.subjectIds.remove(subjectId);
+        connectionsBySubject.computeIfPresent(subjectId, (key, connections) -> {
+            connections.remove(connection);
+            return connections.isEmpty() ? null : connections;
+        });
+    }
+
+    private void unregister(FeedConnection connection) {
+        for (Long subjectId : List.copyOf(connection.subjectIds)) {
+            removeFromSubject(connection, subjectId);
+        }
+        connectionsByUser.remove(connection.userId, connection);
+        connection.queue.clear();
+    }
+
+    /**
+     * One open event stream: its emitter, the subjects it is registered under, its bounded buffer and
+     * the thread currently sending to it, guarded by the connection itself.
+     */
+    private static final class FeedConnection {
+        private final Long userId;
+        private final SseEmitter emitter;
+        private final Set<Long> subjectIds = ConcurrentHashMap.newKeySet();
+        private final Queue<PushEvent> queue;
+        private final AtomicBoolean draining = new AtomicBoolean(false);
+        private final AtomicBoolean closed = new AtomicBoolean(false);
+        private volatile long sendStartedNanos;
+        private Thread sender;
+
+        private FeedConnection(Long userId, SseEmitter emitter, int queueCapacity) {
+            this.userId = userId;
+            this.emitter = emitter;
+            this.queue = new ArrayBlockingQueue<>(queueCapacity);
+        }
+    }
+
+    /**
+     * One buffered event, shared by every connection it is offered to.
+     *
+     * @param name name of the event, {@code null} for a heartbeat comment
+     * @param id identifier of the event
+     * @param json the serialized data of the event
+     */
+    private record PushEvent(String name, String id, String json) {
+        private SseEmitter.SseEventBuilder toSseEvent() {
+            if (name == null) {
+                return SseEmitter.event().comment("heartbeat");
+            }
+            return SseEmitter.event().name(name).id(id).data(json, MediaType.APPLICATION_JSON);
+        }
+    }
+}
@@ -0,0 +1,71 @@
+package com.openclassrooms.mddapi.services;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+
+/**
+ * Position in a list sorted by a timestamp and an identifier, used for keyset pagination.
+ *
+ * <p>The cursor holds the sort key of the last row returned to the client. It is exchanged
+ * with the front-end as an opaque URL-safe token built by {@link #encode()} and read back
+ * with {@link #decode(String)}.</p>
+ */
+public final class KeysetCursor {
+    private static final String SEPARATOR = "|";
+
+    private final LocalDateTime timestamp;
+    private final Long id;
+
+    /**
+     * Construct a new {@code KeysetCursor}.
+     *
+     * @param timestamp timestamp of the last row returned
+     * @param id identifier of the last row returned, used to break ties on the timestamp
+     */
+    public KeysetCursor(LocalDateTime timestamp, Long id) {
+        this.timestamp = timestamp;
+        this.id = id;
+    }
+
+    public LocalDateTime getTimestamp() {
+        return timestamp;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    /**
+     * Encode the cursor into an opaque token that can be sent to the front-end.
+     *
+     * @return a URL-safe Base64 token
+     */
+    public String encode() {
+        String raw = timestamp + SEPARATOR + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Decode a token previously built by {@link #encode()}.
+     *
+     * @param token the token received from the front-end
+     * @return the decoded {@code KeysetCursor}
+     * @throws IllegalArgumentException if the token is malformed
+     */
+    public static KeysetCursor decode(String token) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            int separatorIndex = raw.lastIndexOf(SEPARATOR);
+            if (separatorIndex < 0) {
+                throw new IllegalArgumentException("Invalid cursor.");
+            }
+            LocalDateTime timestamp = LocalDateTime.parse(raw.substring(0, separatorIndex));
+            Long id = Long.valueOf(raw.substring(separatorIndex + 1));
+            return new KeysetCursor(timestamp, id);
+        } catch (DateTimeParseException | IllegalArgumentException exception) {
+            throw new IllegalArgumentException("Invalid cursor.", exception);
+        }
+    }
+}
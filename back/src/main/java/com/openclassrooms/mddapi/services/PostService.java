@@ -1,16 +1,38 @@
 package com.openclassrooms.mddapi.services;
 
 import com.openclassrooms.mddapi.DTO.*;
+import com.openclassrooms.mddapi.caches.FeedCache;
+import com.openclassrooms.mddapi.caches.PostDetailCache;
+import com.openclassrooms.mddapi.events.CommentAddedEvent;
+import com.openclassrooms.mddapi.events.PostCreatedEvent;
 import com.openclassrooms.mddapi.models.*;
 import com.openclassrooms.mddapi.repositories.PostRepository;
 
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.Query;
 import jakarta.transaction.Transactional;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.util.StringUtils;
 
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
 import java.util.NoSuchElementException;
+import java.util.PriorityQueue;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 /**
  * Service responsible for managing posts, including creation, retrieval and conversion
@@ -23,11 +45,45 @@ import java.util.NoSuchElementException;
 @Service
 public class PostService {
 
+    /**
+     * Upper bound applied to the page size requested for the subscribed posts feed.
+     */
+    public static final int MAX_FEED_PAGE_SIZE = 50;
+
+    /**
+     * Maximum number of posts returned by one call to {@link #getSubscribedPostsSince}.
+     */
+    public static final int MAX_DELTA_SIZE = 100;
+
+    /**
+     * Number of comments returned with a post detail.
+     */
+    public static final int DEFAULT_COMMENTS_PAGE_SIZE = 20;
+
+    /**
+     * Upper bound applied to the page size requested for the comments of a post.
+     */
+    public static final int MAX_COMMENTS_PAGE_SIZE = 50;
+
+    /**
+     * Feed order: most recently updated first, ties broken by the highest identifier.
+     */
+    private static final Comparator<PostListDto> FEED_ORDER =
+            Comparator.comparing(PostListDto::getUpdatedAt).thenComparing(PostListDto::getId).reversed();
+
     private final PostRepository postRepository;
     private final SubscriptionService subscriptionService;
     private final UserService userService;
     private final SubjectService subjectService;
     private final CommentService commentService;
+    private final TimelineService timelineService;
+    private final FeedCache feedCache;
+    private final PostDetailCache postDetailCache;
+    private final ApplicationEventPublisher eventPublisher;
+    private final int mergeMinSubjects;
+
+    @PersistenceContext
+    private EntityManager entityManager;
 
     /**
      * Construct a new {@code PostService}.
@@ -37,72 +93,375 @@ public class PostService {
      * @param userService service used to retrieve user entities
      * @param subjectService service used to retrieve subject entities
      * @param commentService service used to manage comments
+     * @param timelineService service serving the feed from the per-user timeline when enabled
+     * @param feedCache cache holding the first feed page of each user
+     * @param postDetailCache cache holding assembled post details
+     * @param eventPublisher publisher used to notify listeners of new posts and comments
+     * @param mergeMinSubjects number of subscriptions from which feed pages are assembled by a k-way merge
      */
-    public PostService(PostRepository postRepository, SubscriptionService subscriptionService , UserService userService, SubjectService subjectService, CommentService commentService) {
+    public PostService(PostRepository postRepository, SubscriptionService subscriptionService , UserService userService, SubjectService subjectService, CommentService commentService, TimelineService timelineService, FeedCache feedCache, PostDetailCache postDetailCache, ApplicationEventPublisher eventPublisher,
+                       @Value("${orion.feed.merge.min-subjects:8}") int mergeMinSubjects) {
         this.postRepository = postRepository;
         this.subscriptionService = subscriptionService;
         this.userService = userService;
         this.subjectService = subjectService;
         this.commentService = commentService;
+        this.timelineService = timelineService;
+        this.feedCache = feedCache;
+        this.postDetailCache = postDetailCache;
+        this.eventPublisher = eventPublisher;
+        this.mergeMinSubjects = mergeMinSubjects;
     }
 
     /**
-     * Retrieve posts for subjects to which the specified user is subscribed.
+     * Retrieve one page of posts for subjects to which the specified user is subscribed.
      *
-     * <p>The method collects the subject ids from the user's subscriptions and uses the
-     * repository to find posts belonging to those subjects, then converts each post to
-     * a {@code PostListDto}.</p>
+     * <p>The method collects the subject ids of the user's subscriptions and asks the
+     * repository for the posts of those subjects, sorted by update date then identifier in
+     * descending order. Rows are projected straight into {@code PostListDto} with the author
+     * joined in the same query, so the statement count does not grow with the number of authors.
+     * Pagination uses a keyset cursor (last seen {@code updatedAt} and id) so the cost of a page
+     * does not depend on how deep the user has scrolled. One extra row is read to know whether a
+     * following page exists. When the timeline mode is enabled, the page is read from the user's
+     * precomputed timeline instead. The first page is served from {@code FeedCache} when present.</p>
      *
      * @param userId identifier of the user
-     * @return a {@code List} of {@code PostListDto} for the user's subscribed subjects
+     * @param cursor opaque cursor returned with the previous page, or {@code null} for the first page
+     * @param size requested page size, clamped between 1 and {@value #MAX_FEED_PAGE_SIZE}
+     * @return a {@code PostPageDto} holding the posts of the page and the cursor of the next page
+     * @throws IllegalArgumentException if the cursor is malformed
      */
-    public List<PostListDto> getSubscribedPostsForUser(Long userId) {
-        Iterable<Subscription> subscriptions = subscriptionService.findByUserId(userId);
-        List<Long> subjectIds = new ArrayList<>();
-        subscriptions.forEach(subscription -> {
-           subjectIds.add(subscription.getSubject().getId());
-        });
+    public PostPageDto getSubscribedPostsForUser(Long userId, String cursor, int size) {
+        int pageSize = Math.max(1, Math.min(size, MAX_FEED_PAGE_SIZE));
+        KeysetCursor keysetCursor = StringUtils.hasText(cursor) ? KeysetCursor.decode(cursor) : null;
+
+        long generation = feedCache.generation(userId);
+        if (keysetCursor == null) {
+            PostPageDto cachedPage = feedCache.get(userId, pageSize);
+            if (cachedPage != null) {
+                return cachedPage;
+            }
+        }
+
+        Pageable pageable = PageRequest.ofSize(pageSize + 1);
+        List<PostListDto> posts = timelineService.isEnabled()
+                ? timelineService.findPage(userId, keysetCursor, pageable)
+                : findSubscribedPostsPage(userId, keysetCursor, pageable);
+
+        boolean hasNextPage = posts.size() > pageSize;
+        List<PostListDto> postsListDto = new ArrayList<>(posts.subList(0, Math.min(posts.size(), pageSize)));
+
+        PostPageDto postPageDto = new PostPageDto();
+        postPageDto.setPostsListDto(postsListDto);
+        if (hasNextPage) {
+            PostListDto lastPost = postsListDto.get(postsListDto.size() - 1);
+            postPageDto.setNextCursor(new KeysetCursor(lastPost.getUpdatedAt(), lastPost.getId()).encode());
+        }
+
+        if (keysetCursor == null) {
+            if (!postsListDto.isEmpty()) {
+                PostListDto firstPost = postsListDto.get(0);
+                postPageDto.setHighWaterMark(new KeysetCursor(firstPost.getUpdatedAt(), firstPost.getId()).encode());
+            }
+            feedCache.put(userId, pageSize, postPageDto, generation);
+        }
+        return postPageDto;
+    }
+
+    /**
+     * Retrieve the posts created or updated in the user's subscribed subjects after a high-water mark.
+     *
+     * <p>Posts are read in ascending {@code (updatedAt, id)} order starting right after the mark, which
+     * is a single probe of the {@code (subject_id, updated_at, id)} index per subject when nothing is new.
+     * At most {@value #MAX_DELTA_SIZE} posts are returned; {@code hasMore} is set when more are pending.
+     * A mark is required: a client without one reads the first feed page, which carries it.</p>
+     *
+     * @param userId identifier of the user
+     * @param since opaque high-water mark from a previous feed page or delta
+     * @return a {@code PostDeltaDto} with the changed posts and the new high-water mark
+     * @throws IllegalArgumentException if the high-water mark is missing or malformed
+     */
+    public PostDeltaDto getSubscribedPostsSince(Long userId, String since) {
+        if (!StringUtils.hasText(since)) {
+            throw new IllegalArgumentException("A high-water mark is required.");
+        }
+        KeysetCursor highWaterMark = KeysetCursor.decode(since);
+
+        PostDeltaDto postDeltaDto = new PostDeltaDto();
+        postDeltaDto.setHighWaterMark(since);
+
+        long[] subjectIds = subscriptionService.findSubjectIdsByUserId(userId);
+        if (subjectIds.length == 0) {
+            return postDeltaDto;
+        }
+
+        Pageable pageable = PageRequest.ofSize(MAX_DELTA_SIZE + 1);
+        List<PostListDto> posts = postRepository.findFeedChangedSince(toParameter(subjectIds),
+                highWaterMark.getTimestamp(), highWaterMark.getId(), pageable);
+        if (posts.isEmpty()) {
+            return postDeltaDto;
+        }
+
+        List<PostListDto> postsListDto = new ArrayList<>(posts.subList(0, Math.min(posts.size(), MAX_DELTA_SIZE)));
+        PostListDto lastPost = postsListDto.get(postsListDto.size() - 1);
+        postDeltaDto.setPostsListDto(postsListDto);
+        postDeltaDto.setHighWaterMark(new KeysetCursor(lastPost.getUpdatedAt(), lastPost.getId()).encode());
+        postDeltaDto.setHasMore(posts.size() > MAX_DELTA_SIZE);
+        return postDeltaDto;
+    }
+
+    /**
+     * Compute the entity tag of a page of the subscribed posts feed from the page itself.
+     *
+     * <p>The tag is a SHA-256 digest of every field of the served posts and of the cursors of the
+     * page, so it describes exactly the representation sent, whether it came from {@code FeedCache},
+     * the timeline or the posts table. A database aggregate such as the latest {@code updated_at}
+     * would not do: neither a new comment count nor an author rename touches it. A stale page
+     * therefore keeps a stale tag and is replaced as soon as the page itself is.</p>
+     *
+     * @param postPageDto the page about to be served
+     * @return the entity tag value of the page
+     */
+    public String getSubscribedPostsETag(PostPageDto postPageDto) {
+        StringBuilder representation = new StringBuilder();
+        for (PostListDto post : postPageDto.getPostsListDto()) {
+            representation.append(post.getId()).append('|').append(post.getUpdatedAt()).append('|')
+                    .append(post.getCommentCount()).append('|')
+                    .append(post.getUserForPostListDto().getId()).append('|')
+                    .append(post.getSubjectForPostListDtoList().getId()).append('|');
+            appendText(representation, post.getTitle());
+            appendText(representation, post.getExcerpt());
+            appendText(representation, post.getUserForPostListDto().getName());
+        }
+        appendText(representation, postPageDto.getNextCursor());
+        appendText(representation, postPageDto.getHighWaterMark());
+        return EntityTags.sha256("feed", representation);
+    }
+
+    /**
+     * Return the entity tag of a post detail without loading the detail.
+     *
+     * <p>The tag is built from the most recent of the post update date and its latest comment
+     * date, plus the comment count. It is taken from {@code PostDetailCache} when the detail is
+     * cached, and otherwise read with a single aggregate query, so a client already holding the
+     * post is answered without assembling it.</p>
+     *
+     * @param postId identifier of the post
+     * @return the entity tag value, or {@code null} if the post does not exist
+     */
+    public String getPostETag(Long postId) {
+        PostDetailCache.PostDetail postDetail = postDetailCache.getIfPresent(postId);
+        if (postDetail != null) {
+            return postDetail.eTag();
+        }
+        return postRepository.findPostVersion(postId)
+                .map(contentVersion -> contentVersion.toETag("post-" + postId))
+                .orElse(null);
+    }
+
+    /**
+     * Stream every post of the subjects to which the specified user is subscribed, most recently
+     * updated first, handing each one to the given consumer as soon as it is read.
+     *
+     * <p>The rows come from a database cursor projected into {@code PostListDto}, so neither the
+     * result set nor a list of DTOs is held in memory. The cursor is closed when the method returns.</p>
+     *
+     * @param userId identifier of the user
+     * @param consumer callback receiving each post in order
+     */
+    @Transactional
+    public void streamSubscribedPostsForUser(Long userId, Consumer<PostListDto> consumer) {
+        Stream<PostListDto> posts;
+        if (timelineService.isEnabled()) {
+            posts = timelineService.streamTimeline(userId);
+        } else {
+            long[] subjectIds = subscriptionService.findSubjectIdsByUserId(userId);
+            if (subjectIds.length == 0) {
+                return;
+            }
+            posts = postRepository.streamFeed(toParameter(subjectIds));
+        }
+
+        try (posts) {
+            posts.forEach(consumer);
+        }
+    }
+
+    /**
+     * Read one page of posts from the subjects the user is subscribed to.
+     *
+     * <p>With few subscriptions a single query filters posts on the list of subjects. From
+     * {@code orion.feed.merge.min-subjects} subscriptions, where such a query would sort the union
+     * of all subjects' posts, the page is assembled by {@link #mergeSubjectFeeds} instead.</p>
+     *
+     * @param userId identifier of the user
+     * @param keysetCursor position after which to read, or {@code null} for the first page
+     * @param pageable limit of rows to read
+     * @return a {@code List} of {@code PostListDto}, empty if the user has no subscription
+     */
+    private List<PostListDto> findSubscribedPostsPage(Long userId, KeysetCursor keysetCursor, Pageable pageable) {
+        long[] subjectIds = subscriptionService.findSubjectIdsByUserId(userId);
+        if (subjectIds.length == 0) {
+            return List.of();
+        }
+
+        if (subjectIds.length >= mergeMinSubjects) {
+            return mergeSubjectFeeds(subjectIds, keysetCursor, pageable);
+        }
 
-        Iterable<Post> posts = postRepository.findBySubjectIdIn(subjectIds);
+        return keysetCursor == null
+                ? postRepository.findFeedFirstPage(toParameter(subjectIds), pageable)
+                : postRepository.findFeedPageAfter(toParameter(subjectIds), keysetCursor.getTimestamp(), keysetCursor.getId(), pageable);
+    }
 
-        List<PostListDto> postsListDto = new ArrayList<>();
-        for(Post post : posts) {
-            postsListDto.add(convertPostToPostListDto(post));
+    /**
+     * Assemble one feed page by merging the posts of each subject.
+     *
+     * <p>For every subject, at most one page of posts is read from the {@code (subject_id, updated_at, id)}
+     * index, already in feed order, so no subquery needs a sort. The per-subject selects are combined with
+     * {@code UNION ALL} into a single statement, so the page costs one round trip whatever the number of
+     * subscriptions. The per-subject lists are then merged by {@link #mergeFeeds}. The work is bounded by
+     * page size times subscriptions, whatever the total number of posts.</p>
+     *
+     * @param subjectIds identifiers of the subscribed subjects
+     * @param keysetCursor position after which to read, or {@code null} for the first page
+     * @param pageable limit of rows to return
+     * @return a {@code List} of {@code PostListDto} in feed order
+     */
+    private List<PostListDto> mergeSubjectFeeds(long[] subjectIds, KeysetCursor keysetCursor, Pageable pageable) {
+        int limit = pageable.getPageSize();
+        Query query = entityManager.createNativeQuery(PostRepository.subjectFeedsSql(subjectIds.length, keysetCursor != null, limit));
+        for (int i = 0; i < subjectIds.length; i++) {
+            query.setParameter("subject" + i, subjectIds[i]);
+        }
+        if (keysetCursor != null) {
+            query.setParameter("updatedAt", keysetCursor.getTimestamp());
+            query.setParameter("id", keysetCursor.getId());
         }
 
-        return postsListDto;
+        // UNION ALL does not keep the order of its parts: rows are grouped back by subject and re-sorted
+        Map<Long, List<PostListDto>> subjectFeeds = new HashMap<>();
+        for (Object row : query.getResultList()) {
+            PostListDto postListDto = toPostListDto((Object[]) row);
+            subjectFeeds.computeIfAbsent(postListDto.getSubjectForPostListDtoList().getId(), subjectId -> new ArrayList<>())
+                    .add(postListDto);
+        }
+        List<List<PostListDto>> feeds = new ArrayList<>(subjectFeeds.values());
+        feeds.forEach(feed -> feed.sort(FEED_ORDER));
+        return mergeFeeds(feeds, limit);
+    }
+
+    /**
+     * Merge feeds already in feed order into the first {@code limit} posts of their union.
+     *
+     * <p>A heap holds the head of each feed and the merge stops as soon as the page is full, so
+     * the input lists are read no further than needed.</p>
+     *
+     * @param feeds the lists to merge, each sorted by descending {@code (updatedAt, id)}
+     * @param limit maximum number of posts to return
+     * @return a {@code List} of {@code PostListDto} in feed order
+     */
+    static List<PostListDto> mergeFeeds(Collection<List<PostListDto>> feeds, int limit) {
+        PriorityQueue<MergeSource> heads = new PriorityQueue<>(Math.max(1, feeds.size()),
+                (first, second) -> FEED_ORDER.compare(first.current, second.current));
+        for (List<PostListDto> feed : feeds) {
+            MergeSource source = new MergeSource(feed.iterator());
+            if (source.advance()) {
+                heads.add(source);
+            }
+        }
+
+        List<PostListDto> merged = new ArrayList<>(limit);
+        while (merged.size() < limit && !heads.isEmpty()) {
+            MergeSource head = heads.poll();
+            merged.add(head.current);
+            if (head.advance()) {
+                heads.add(head);
+            }
+        }
+        return merged;
+    }
+
+    private static PostListDto toPostListDto(Object[] row) {
+        return new PostListDto(((Number) row[0]).longValue(), (String) row[1], (String) row[2], toLocalDateTime(row[3]),
+                ((Number) row[4]).longValue(), ((Number) row[5]).longValue(), (String) row[6], ((Number) row[7]).longValue());
+    }
+
+    private static LocalDateTime toLocalDateTime(Object value) {
+        return value instanceof Timestamp timestamp ? timestamp.toLocalDateTime() : (LocalDateTime) value;
     }
 
     /**
      * Find a post by its identifier and convert it to {@code PostDto}.
      *
+     * <p>The post is read with its content, author and subject in one statement through the
+     * {@value Post#DETAIL_GRAPH} fetch plan, and the first page of comments with their authors in
+     * a second one, so the detail costs the same number of statements whatever the thread size.
+     * Assembled details are kept in {@code PostDetailCache} until a new comment is committed.</p>
+     *
      * @param postId identifier of the post
      * @return a {@code PostDto} representing the post
      * @throws NoSuchElementException if the post does not exist
      */
     public PostDto findPostById(Long postId) {
-        Post post = postRepository.findById(postId)
-                .orElseThrow(() -> new NoSuchElementException("Post not found"));
+        return findPostDetail(postId).postDto();
+    }
 
-        return convertPostToPostDto(post);
+    /**
+     * Find a specific post by its identifier along with the entity tag it was read under, which
+     * may be newer than a tag returned earlier by {@link #getPostETag}.
+     *
+     * @param postId identifier of the post
+     * @return the {@code PostDetail} holding the post and its entity tag
+     * @throws NoSuchElementException if the post does not exist
+     */
+    public PostDetailCache.PostDetail findPostDetail(Long postId) {
+        PostDetailCache.PostDetail postDetail = postDetailCache.get(postId, this::loadPostDetail);
+        if (postDetail == null) {
+            throw new NoSuchElementException("Post not found");
+        }
+        return postDetail;
     }
 
     /**
-     * Retrieve comments for a specific post and convert them to DTOs.
+     * Retrieve one page of comments for a specific post and convert them to DTOs.
+     *
+     * <p>Comments are read oldest first on the {@code (post_id, created_at, id)} index with their
+     * authors joined in the same query, after a keyset cursor, so a page costs one statement and
+     * at most {@code size + 1} rows however long the thread is.</p>
      *
      * @param postId identifier of the post
-     * @return an {@code Iterable} of {@code CommentDto} for the post
+     * @param cursor opaque cursor returned with the previous page, or {@code null} for the first page
+     * @param size requested page size, clamped between 1 and {@value #MAX_COMMENTS_PAGE_SIZE}
+     * @return a {@code CommentPageDto} holding the comments of the page and the cursor after its last comment
+     * @throws IllegalArgumentException if the cursor is malformed
      */
-    public Iterable<CommentDto> findCommentsByPostId(Long postId) {
-        Iterable<Comment> comments = commentService.findByPostId(postId);
-        return convertCommentsToCommentDtos(comments);
+    public CommentPageDto getCommentsPage(Long postId, String cursor, int size) {
+        int pageSize = Math.max(1, Math.min(size, MAX_COMMENTS_PAGE_SIZE));
+        KeysetCursor keysetCursor = StringUtils.hasText(cursor) ? KeysetCursor.decode(cursor) : null;
+
+        List<Comment> comments = commentService.findPageByPostId(postId, keysetCursor, PageRequest.ofSize(pageSize + 1));
+        boolean hasMore = comments.size() > pageSize;
+        List<Comment> pageComments = comments.subList(0, Math.min(comments.size(), pageSize));
+
+        CommentPageDto commentPageDto = new CommentPageDto();
+        convertCommentsToCommentDtos(pageComments).forEach(commentPageDto.getCommentsDto()::add);
+        commentPageDto.setHasMore(hasMore);
+        if (pageComments.isEmpty()) {
+            commentPageDto.setNextCursor(cursor);
+        } else {
+            Comment lastComment = pageComments.get(pageComments.size() - 1);
+            commentPageDto.setNextCursor(new KeysetCursor(lastComment.getCreatedAt(), lastComment.getId()).encode());
+        }
+        return commentPageDto;
     }
 
     /**
      * Create a new post authored by the specified user.
      *
      * <p>The method validates input fields, verifies that the user and subject exist,
-     * converts the DTO to an entity and persists it.</p>
+     * converts the DTO to an entity and persists it. A {@code PostCreatedEvent} is then
+     * published so that listeners can react once the transaction has committed.</p>
      *
      * @param newPostDto DTO containing new post data
      * @param userId identifier of the authoring user
@@ -126,13 +485,19 @@ public class PostService {
        Post post = convertNewPostDtoToPost(newPostDto, user, subject);
 
         postRepository.save(post);
+
+        eventPublisher.publishEvent(new PostCreatedEvent(post.getId(), subject.getId(), user.getId(), post.getUpdatedAt()));
     }
 
     /**
      * Add a new comment to an existing post.
      *
-     * <p>The method validates the message, ensures the user and post exist, creates
-     * a new {@code Comment} entity and persists it via {@code CommentService}.</p>
+     * <p>The method validates the message, checks that the user exists with a primary key
+     * lookup, then increments the post's comment counter with an atomic update, whose row
+     * count doubles as the existence check of the post. The new {@code Comment} only holds
+     * references to the user and the post and is persisted via {@code CommentService}, so
+     * neither entity nor the post's comment collection is loaded and the cost of a comment
+     * does not depend on the size of the thread.</p>
      *
      * @param postId identifier of the post to comment on
      * @param userId identifier of the commenting user
@@ -146,20 +511,42 @@ public class PostService {
             throw new IllegalArgumentException("Comment message cannot be empty.");
         }
 
-        User user = userService.findById(userId)
-                .orElseThrow(() -> new NoSuchElementException("User not found"));
+        if (!userService.existsById(userId)) {
+            throw new NoSuchElementException("User not found");
+        }
 
-        Post post = postRepository.findById(postId)
-                .orElseThrow(() -> new NoSuchElementException("Post not found"));
+        if (postRepository.incrementCommentCount(postId) == 0) {
+            throw new NoSuchElementException("Post not found");
+        }
 
         Comment comment = new Comment();
         comment.setMessage(message);
-        comment.setPost(post);
-        comment.setUser(user);
-
-        post.getComments().add(comment);
+        comment.setPost(entityManager.getReference(Post.class, postId));
+        comment.setUser(userService.getReferenceById(userId));
 
         commentService.saveComment(comment);
+
+        eventPublisher.publishEvent(new CommentAddedEvent(postId, comment.getId(), userId));
+    }
+
+    /**
+     * Build the cached detail of a post: its entity tag, read first so that it never describes a
+     * newer state than the detail, then the detail itself.
+     *
+     * @param postId identifier of the post
+     * @return the {@code PostDetail}, or {@code null} if the post does not exist
+     */
+    private PostDetailCache.PostDetail loadPostDetail(Long postId) {
+        String eTag = postRepository.findPostVersion(postId)
+                .map(contentVersion -> contentVersion.toETag("post-" + postId))
+                .orElse(null);
+        if (eTag == null) {
+            return null;
+        }
+
+        return postRepository.findDetailById(postId)
+                .map(post -> new PostDetailCache.PostDetail(convertPostToPostDto(post), eTag))
+                .orElse(null);
     }
 
     /**
@@ -168,21 +555,45 @@ public class PostService {
      * @param newPostDto DTO containing post fields
      * @param user authoring user entity
      * @param subject subject entity associated with the post
-     * @return a new {@code Post} entity ready for persistence
+     * @return a new {@code Post} entity ready for persistence, with its excerpt precomputed
      */
     private Post convertNewPostDtoToPost(NewPostDto newPostDto, User user, Subject subject) {
         Post post = new Post();
         post.setTitle(newPostDto.getTitle());
         post.setContent(newPostDto.getContent());
+        post.setExcerpt(buildExcerpt(newPostDto.getContent()));
         post.setSubject(subject);
         post.setUser(user);
 
         return post;
     }
 
+    // subject ids stay primitive in SubscriptionIndex and are only boxed to bind the IN list of a query
+    private static List<Long> toParameter(long[] subjectIds) {
+        return Arrays.stream(subjectIds).boxed().toList();
+    }
+
+    /**
+     * Build the list preview of a post content, for posts created here or by {@code BulkImportService}.
+     *
+     * @param content full content of the post
+     * @return the content itself if short enough, otherwise its first {@value Post#EXCERPT_LENGTH}
+     *         characters followed by an ellipsis
+     */
+    static String buildExcerpt(String content) {
+        if (content.length() <= Post.EXCERPT_LENGTH) {
+            return content;
+        }
+        int end = Post.EXCERPT_LENGTH;
+        if (Character.isHighSurrogate(content.charAt(end - 1))) {
+            end--;
+        }
+        return content.substring(0, end) + Post.EXCERPT_ELLIPSIS;
+    }
+
     /**
      * Convert a {@code Post} entity to a detailed {@code PostDto}, including subject,
-     * user summary and comments.
+     * user summary and the first page of comments.
      *
      * @param post the {@code Post} entity to convert
      * @return a {@code PostDto} with populated fields and nested DTOs
@@ -219,33 +630,14 @@ public class PostService {
         userDto.setName(post.getUser().getName());
         postDto.setUserDto(userDto);
 
-        Iterable<CommentDto> allComments = findCommentsByPostId(post.getId());
-        List<CommentDto> commentsDto = new ArrayList<>();
-        if(allComments != null) {
-            allComments.forEach(commentsDto::add);
-        }
-
-        postDto.setCommentsDto(commentsDto);
+        CommentPageDto commentPageDto = getCommentsPage(post.getId(), null, DEFAULT_COMMENTS_PAGE_SIZE);
+        postDto.setCommentsDto(commentPageDto.getCommentsDto());
+        postDto.setCommentsCursor(commentPageDto.getNextCursor());
+        postDto.setHasMoreComments(commentPageDto.isHasMore());
 
         return postDto;
     }
 
-    /**
-     * Convert a {@code Post} to a compact {@code PostListDto} used for listing pages.
-     *
-     * @param post the {@code Post} entity to convert
-     * @return a {@code PostListDto} with summary fields, user and subject info
-     */
-    private PostListDto convertPostToPostListDto(Post post) {
-        PostListDto postListDto = new PostListDto();
-
-        setPostListDtoFromPost(post, postListDto);
-        postListDto.setUserForPostListDto(setUserDtoForPostsList(post.getUser()));
-        postListDto.setSubjectForPostListDtoList(setSubjectForPostListDto(post.getSubject()));
-
-        return postListDto;
-    }
-
     //set Method for post detail
     /**
      * Map the comment's user to a {@code UserDto} used inside post detail responses.
@@ -285,42 +677,32 @@ public class PostService {
         return commentDtos;
     }
 
-    // set Methods for posts list
     /**
-     * Populate basic fields of {@code PostListDto} from a {@code Post} entity.
-     *
-     * @param post source {@code Post} entity
-     * @param postListDto target {@code PostListDto} to populate
+     * One sorted input of the k-way merge: an iterator over a subject's posts and its current head.
      */
-    private void setPostListDtoFromPost(Post post, PostListDto postListDto) {
-        postListDto.setId(post.getId());
-        postListDto.setTitle(post.getTitle());
-        postListDto.setContent(post.getContent());
-        postListDto.setUpdatedAt(post.getUpdatedAt());
-    }
+    private static final class MergeSource {
+        private final Iterator<PostListDto> iterator;
+        private PostListDto current;
 
-    /**
-     * Create a {@code UserForPostListDto} from a {@code User} entity for listing contexts.
-     *
-     * @param user source {@code User} entity
-     * @return a {@code UserForPostListDto} with id and name populated
-     */
-    private UserForPostListDto setUserDtoForPostsList(User user) {
-        UserForPostListDto userForPostListDtoDto = new UserForPostListDto();
-        userForPostListDtoDto.setId(user.getId());
-        userForPostListDtoDto.setName(user.getName());
-        return userForPostListDtoDto;
+        private MergeSource(Iterator<PostListDto> iterator) {
+            this.iterator = iterator;
+        }
+
+        private boolean advance() {
+            if (!iterator.hasNext()) {
+                return false;
+            }
+            current = iterator.next();
+            return true;
+        }
     }
 
-    /**
-     * Create a {@code SubjectForPostListDto} from a {@code Subject} entity for listing contexts.
-     *
-     * @param subject source {@code Subject} entity
-     * @return a {@code SubjectForPostListDto} with id populated
-     */
-    private SubjectForPostListDto setSubjectForPostListDto(Subject subject) {
-        SubjectForPostListDto subjectForPostListDto = new SubjectForPostListDto();
-        subjectForPostListDto.setId(subject.getId());
-        return subjectForPostListDto;
+    // length-prefixed so that no two sequences of texts share a representation
+    private static void appendText(StringBuilder representation, String text) {
+        if (text == null) {
+            representation.append("-|");
+        } else {
+            representation.append(text.length()).append(':').append(text).append('|');
+        }
     }
 }
@@ -1,6 +1,7 @@
 package com.openclassrooms.mddapi.services;
 
 import com.openclassrooms.mddapi.DTO.SubjectDto;
+import com.openclassrooms.mddapi.caches.SubscriptionIndex;
 import com.openclassrooms.mddapi.models.Subject;
 import com.openclassrooms.mddapi.repositories.SubjectRepository;
 import jakarta.persistence.EntityManager;
@@ -8,6 +9,8 @@ import jakarta.persistence.PersistenceContext;
 import org.springframework.stereotype.Service;
 
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -20,6 +23,7 @@ import java.util.Optional;
 @Service
 public class SubjectService {
     private final SubjectRepository subjectRepository;
+    private final SubscriptionIndex subscriptionIndex;
 
     @PersistenceContext
     private EntityManager entityManager;
@@ -28,9 +32,11 @@ public class SubjectService {
      * Construct a new {@code SubjectService}.
      *
      * @param subjectRepository repository used to persist and query {@code Subject} entities
+     * @param subscriptionIndex cache of the subject ids each user is subscribed to
      */
-    public SubjectService(SubjectRepository subjectRepository) {
+    public SubjectService(SubjectRepository subjectRepository, SubscriptionIndex subscriptionIndex) {
         this.subjectRepository = subjectRepository;
+        this.subscriptionIndex = subscriptionIndex;
     }
 
     /**
@@ -61,6 +67,43 @@ public class SubjectService {
         return subjectsDto;
     }
 
+    /**
+     * Return all subjects with the subscription state of the given user.
+     *
+     * <p>Subjects, subscriber counts and the user's subscriptions are read by a single query
+     * joining subjects to the user's subscriptions and projected straight into {@code SubjectDto},
+     * so no {@code Subject} or {@code Subscription} entity is loaded.</p>
+     *
+     * @param userId identifier of the user
+     * @return a {@code List} of {@code SubjectDto} with {@code isSubscribed} set, ordered by identifier
+     */
+    public List<SubjectDto> findAllWithSubscriptionState(Long userId) {
+        return subjectRepository.findAllWithSubscriptionState(userId);
+    }
+
+    /**
+     * Compute the entity tag of the subjects listed with the subscription state of a user, from the
+     * catalog aggregate and the user's subscribed subject ids held by {@code SubscriptionIndex}.
+     *
+     * @param userId identifier of the user
+     * @return the entity tag value of the listing
+     */
+    public String getSubscriptionStateETag(Long userId) {
+        long[] subjectIds = subscriptionIndex.getSubjectIds(userId);
+        return getCatalogETag() + "-" + Integer.toHexString(Arrays.hashCode(subjectIds)) + "-" + subjectIds.length;
+    }
+
+    /**
+     * Compute the entity tag of the subject catalog from a single aggregate (latest
+     * {@code updated_at}, subject count and sum of the counter versions), without loading the subjects.
+     * Every subscriber counter change bumps the version of its subject, so the tag changes with it.
+     *
+     * @return the entity tag value of the catalog
+     */
+    public String getCatalogETag() {
+        return subjectRepository.findCatalogVersion().toETag("subjects");
+    }
+
     /**
      * Obtain a JPA reference (proxy) for a {@code Subject} with the given identifier.
      *
@@ -76,6 +119,39 @@ public class SubjectService {
         return entityManager.getReference(Subject.class, id);
     }
 
+    /**
+     * Tell whether every given identifier belongs to an existing subject.
+     *
+     * @param subjectIds distinct identifiers of subjects
+     * @return {@code true} if all the subjects exist
+     */
+    public boolean existAll(Collection<Long> subjectIds) {
+        return subjectRepository.countByIdIn(subjectIds) == subjectIds.size();
+    }
+
+    /**
+     * Atomically add one to the subscriber counter of subjects, in a single statement.
+     *
+     * <p>Must be called inside the subscribing transaction.</p>
+     *
+     * @param subjectIds identifiers of the subjects
+     */
+    public void incrementSubscriberCounts(Collection<Long> subjectIds) {
+        subjectRepository.incrementSubscriberCounts(subjectIds);
+    }
+
+    /**
+     * Atomically remove one from the subscriber counter of subjects, never going below zero,
+     * in a single statement.
+     *
+     * <p>Must be called inside the unsubscribing transaction.</p>
+     *
+     * @param subjectIds identifiers of the subjects
+     */
+    public void decrementSubscriberCounts(Collection<Long> subjectIds) {
+        subjectRepository.decrementSubscriberCounts(subjectIds);
+    }
+
     /**
      * Convert a {@code Subject} entity to a {@code SubjectDto}.
      *
@@ -88,6 +164,7 @@ public class SubjectService {
         subjectDto.setTitle(subject.getTitle());
         subjectDto.setDescription(subject.getDescription());
         subjectDto.setDescription(subject.getDescription());
+        subjectDto.setSubscriberCount(subject.getSubscriberCount());
         return subjectDto;
     }
 }
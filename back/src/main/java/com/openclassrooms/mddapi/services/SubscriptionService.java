@@ -1,41 +1,59 @@
 package com.openclassrooms.mddapi.services;
 
 import com.openclassrooms.mddapi.DTO.SubscriptionDto;
-import com.openclassrooms.mddapi.models.Subject;
+import com.openclassrooms.mddapi.caches.SubscriptionIndex;
+import com.openclassrooms.mddapi.events.SubscriptionChangedEvent;
 import com.openclassrooms.mddapi.models.Subscription;
-import com.openclassrooms.mddapi.models.User;
 import com.openclassrooms.mddapi.repositories.SubscriptionRepository;
 import jakarta.transaction.Transactional;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
 
 /**
  * Service responsible for managing user subscriptions to subjects.
  *
  * <p>This service provides methods to query subscriptions for a user, subscribe and unsubscribe
- * from subjects, and convert subscription entities to DTOs. It relies on {@code SubscriptionRepository}
- * for persistence and uses {@code UserService} and {@code SubjectService} to obtain entity references.</p>
+ * from subjects, one at a time or in batches, and convert subscription entities to DTOs. It relies on
+ * {@code SubscriptionRepository} for persistence and uses {@code SubjectService} to check subjects and
+ * maintain their subscriber counters. The subject ids of a user's subscriptions are answered from {@code SubscriptionIndex},
+ * while subscription changes are always decided from the database.</p>
  */
 @Service
 public class SubscriptionService {
 
+    /**
+     * Maximum number of subjects changed by one call to {@link #updateSubscriptions}.
+     */
+    public static final int MAX_BATCH_SIZE = 100;
+
     private final SubscriptionRepository subscriptionRepository;
-    private final UserService userService;
+    private final SubscriptionIndex subscriptionIndex;
     private final SubjectService subjectService;
+    private final TimelineService timelineService;
+    private final ApplicationEventPublisher eventPublisher;
 
     /**
      * Construct a new {@code SubscriptionService}.
      *
      * @param subscriptionRepository repository used to persist and query subscriptions
-     * @param userService service used to obtain user references
-     * @param subjectService service used to obtain subject references
+     * @param subscriptionIndex cache of the subject ids each user is subscribed to
+     * @param subjectService service used to check subjects and maintain their subscriber counters
+     * @param timelineService service keeping the per-user timeline in line with subscriptions
+     * @param eventPublisher publisher used to notify listeners of subscription changes
      */
-    public SubscriptionService(SubscriptionRepository subscriptionRepository, UserService userService, SubjectService subjectService) {
+    public SubscriptionService(SubscriptionRepository subscriptionRepository, SubscriptionIndex subscriptionIndex, SubjectService subjectService, TimelineService timelineService, ApplicationEventPublisher eventPublisher) {
         this.subscriptionRepository = subscriptionRepository;
-        this.userService = userService;
+        this.subscriptionIndex = subscriptionIndex;
         this.subjectService = subjectService;
+        this.timelineService = timelineService;
+        this.eventPublisher = eventPublisher;
     }
 
     /**
@@ -48,6 +66,47 @@ public class SubscriptionService {
         return subscriptionRepository.findByUserId(userId);
     }
 
+    /**
+     * Find the identifiers of the subjects the given user is subscribed to.
+     *
+     * <p>The ids come from {@code SubscriptionIndex} as a sorted primitive array, so neither a
+     * {@code Subscription} entity nor a boxed identifier is created. The array is shared and must
+     * not be modified.</p>
+     *
+     * @param userId identifier of the user
+     * @return the subject identifiers in ascending order
+     */
+    public long[] findSubjectIdsByUserId(Long userId) {
+        return subscriptionIndex.getSubjectIds(userId);
+    }
+
+    /**
+     * Tell whether the given user is subscribed to a subject, from {@code SubscriptionIndex}.
+     *
+     * @param userId identifier of the user
+     * @param subjectId identifier of the subject
+     * @return {@code true} if the subscription exists
+     */
+    public boolean isSubscribed(Long userId, Long subjectId) {
+        return subjectId != null && subscriptionIndex.isSubscribed(userId, subjectId);
+    }
+
+    /**
+     * Compute the entity tag of the user's subscriptions from their identifiers only.
+     *
+     * <p>Subscription rows are never modified, so their sorted identifiers fully describe
+     * the representation returned to the client; the tag is their SHA-256 digest.</p>
+     *
+     * @param userId identifier of the user
+     * @return the entity tag value of the user's subscriptions
+     */
+    public String getSubscriptionsETag(Long userId) {
+        List<Long> subscriptionIds = subscriptionRepository.findIdsByUserIdOrderById(userId);
+        StringBuilder representation = new StringBuilder();
+        subscriptionIds.forEach(subscriptionId -> representation.append(subscriptionId).append(','));
+        return EntityTags.sha256("subscriptions-" + userId, representation);
+    }
+
     /**
      * Get all subscriptions for a user and convert them to DTOs.
      *
@@ -64,32 +123,26 @@ public class SubscriptionService {
     }
 
     /**
-     * Create a subscription linking the given user and subject.
+     * Subscribe the given user to a subject.
      *
-     * <p>This method obtains JPA references for user and subject via their services and
-     * persists a new {@code Subscription} entity.</p>
+     * <p>Subscribing is idempotent: subscribing again to a followed subject changes nothing.
+     * The work is done by {@link #updateSubscriptions}.</p>
      *
      * @param userId identifier of the user who subscribes
      * @param subjectId identifier of the subject to subscribe to
-     * @throws jakarta.persistence.EntityNotFoundException if the user or subject reference does not exist when accessed
+     * @throws IllegalArgumentException if the subject does not exist
      */
     @Transactional
     public void subscribeToSubject(Long userId, Long subjectId) {
-        User user = userService.getReferenceById(userId);
-        Subject subject = subjectService.getReferenceById(subjectId);
-
-        Subscription newSubscription = new Subscription();
-        newSubscription.setUser(user);
-        newSubscription.setSubject(subject);
-
-        subscriptionRepository.save(newSubscription);
+        updateSubscriptions(userId, Collections.singletonList(subjectId), List.of());
     }
 
     /**
      * Remove an existing subscription between a user and a subject.
      *
      * <p>If no subscription exists for the given user and subject, an {@code IllegalArgumentException}
-     * is thrown.</p>
+     * is thrown. The subscription is looked up in the database, never in {@code SubscriptionIndex},
+     * which may lag behind changes made on another instance.</p>
      *
      * @param userId identifier of the user
      * @param subjectId identifier of the subject
@@ -97,13 +150,119 @@ public class SubscriptionService {
      */
     @Transactional
     public void unsubscribeFromSubject(Long userId, Long subjectId) {
-
-        Subscription subscription = subscriptionRepository.findByUserIdAndSubjectId(userId, subjectId).orElse(null);
-        if (subscription == null) {
+        if (subjectId == null || unsubscribe(userId, Set.of(subjectId)).isEmpty()) {
             throw new IllegalArgumentException("Subscription does not exist.");
         }
+    }
+
+    /**
+     * Subscribe a user to some subjects and unsubscribe them from others in one transaction.
+     *
+     * <p>What changes is decided from the database alone. The subscriptions that already exist among
+     * the requested subjects are read first; the missing ones are written with one multi-row
+     * {@code INSERT IGNORE}, so that the unique {@code (user_id, subject_id)} constraint silently absorbs
+     * a concurrent duplicate, and the existing ones to remove with one {@code DELETE}. Only the rows
+     * actually inserted or deleted by this transaction are counted: subscriber counters are adjusted for
+     * them with one statement, the user's timeline is pruned when the timeline mode is enabled, and one
+     * {@code SubscriptionChangedEvent} is published per changed subject, from which the timeline of a new
+     * subscription is backfilled once committed.</p>
+     *
+     * @param userId identifier of the user
+     * @param subjectIdsToSubscribe identifiers of the subjects to subscribe to, or {@code null}
+     * @param subjectIdsToUnsubscribe identifiers of the subjects to unsubscribe from, or {@code null}
+     * @throws IllegalArgumentException if an identifier is missing, appears in both lists, exceeds
+     *                                  {@value #MAX_BATCH_SIZE} identifiers in all or if a subject to
+     *                                  subscribe to does not exist
+     */
+    @Transactional
+    public void updateSubscriptions(Long userId, Collection<Long> subjectIdsToSubscribe, Collection<Long> subjectIdsToUnsubscribe) {
+        Set<Long> toSubscribe = subjectIdsToSubscribe == null ? new HashSet<>() : new HashSet<>(subjectIdsToSubscribe);
+        Set<Long> toUnsubscribe = subjectIdsToUnsubscribe == null ? new HashSet<>() : new HashSet<>(subjectIdsToUnsubscribe);
+        if (toSubscribe.contains(null) || toUnsubscribe.contains(null)) {
+            throw new IllegalArgumentException("Subject id is required.");
+        }
+        if (toSubscribe.size() + toUnsubscribe.size() > MAX_BATCH_SIZE) {
+            throw new IllegalArgumentException("At most " + MAX_BATCH_SIZE + " subjects can be changed at once.");
+        }
+        if (!Collections.disjoint(toSubscribe, toUnsubscribe)) {
+            throw new IllegalArgumentException("A subject cannot be subscribed and unsubscribed at once.");
+        }
+        if (!toSubscribe.isEmpty() && !subjectService.existAll(toSubscribe)) {
+            throw new IllegalArgumentException("Subject does not exist.");
+        }
+
+        subscribe(userId, toSubscribe);
+        unsubscribe(userId, toUnsubscribe);
+    }
+
+    /**
+     * Insert the missing subscriptions of a user and apply the side effects of the inserted ones.
+     *
+     * <p>Relies on the {@code REPEATABLE READ} snapshot of the transaction (the MySQL default): when
+     * a concurrent request inserted some rows first, a second read of the same subjects only shows,
+     * besides the rows that existed before, the ones this transaction inserted itself.</p>
+     *
+     * @param userId identifier of the user
+     * @param subjectIds identifiers of existing subjects
+     */
+    private void subscribe(Long userId, Set<Long> subjectIds) {
+        if (subjectIds.isEmpty()) {
+            return;
+        }
+        Set<Long> missing = new HashSet<>(subjectIds);
+        missing.removeAll(findSubscribedAmong(userId, subjectIds));
+        if (missing.isEmpty()) {
+            return;
+        }
+
+        Set<Long> subscribed = missing;
+        if (subscriptionRepository.insertIgnoringDuplicates(userId, missing) < missing.size()) {
+            subscribed = findSubscribedAmong(userId, missing);
+        }
+        if (subscribed.isEmpty()) {
+            return;
+        }
+
+        subjectService.incrementSubscriberCounts(subscribed);
+        subscribed.forEach(subjectId -> eventPublisher.publishEvent(new SubscriptionChangedEvent(userId, subjectId, true)));
+    }
+
+    /**
+     * Delete the existing subscriptions of a user and apply the side effects of the deleted ones.
+     *
+     * <p>When a concurrent request deleted some rows first, they are still visible in the snapshot of
+     * this transaction, unlike the rows it deleted itself, which tells them apart.</p>
+     *
+     * @param userId identifier of the user
+     * @param subjectIds identifiers of the subjects to unsubscribe from
+     * @return the identifiers of the subjects actually unsubscribed from
+     */
+    private Set<Long> unsubscribe(Long userId, Set<Long> subjectIds) {
+        if (subjectIds.isEmpty()) {
+            return Set.of();
+        }
+        Set<Long> existing = findSubscribedAmong(userId, subjectIds);
+        if (existing.isEmpty()) {
+            return Set.of();
+        }
+
+        Set<Long> unsubscribed = existing;
+        if (subscriptionRepository.deleteByUserIdAndSubjectIdIn(userId, existing) < existing.size()) {
+            unsubscribed = new HashSet<>(existing);
+            unsubscribed.removeAll(findSubscribedAmong(userId, existing));
+        }
+        if (unsubscribed.isEmpty()) {
+            return Set.of();
+        }
+
+        subjectService.decrementSubscriberCounts(unsubscribed);
+        timelineService.pruneSubjects(userId, unsubscribed);
+        unsubscribed.forEach(subjectId -> eventPublisher.publishEvent(new SubscriptionChangedEvent(userId, subjectId, false)));
+        return unsubscribed;
+    }
 
-        subscriptionRepository.delete(subscription);
+    private Set<Long> findSubscribedAmong(Long userId, Set<Long> subjectIds) {
+        return new HashSet<>(subscriptionRepository.findSubjectIdsByUserIdAndSubjectIdIn(userId, subjectIds));
     }
 
     /**
@@ -0,0 +1,174 @@
+package com.openclassrooms.mddapi.services;
+
+import com.openclassrooms.mddapi.DTO.PostListDto;
+import com.openclassrooms.mddapi.caches.FeedCache;
+import com.openclassrooms.mddapi.events.PostCreatedEvent;
+import com.openclassrooms.mddapi.events.SubscriptionChangedEvent;
+import com.openclassrooms.mddapi.repositories.SubscriptionRepository;
+import com.openclassrooms.mddapi.repositories.UserTimelineRepository;
+import jakarta.transaction.Transactional;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Pageable;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.sql.Timestamp;
+import java.util.Collection;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * Service maintaining the optional per-user timeline table used by the home feed.
+ *
+ * <p>When {@code orion.feed.timeline.enabled} is {@code true}, every new post is appended to the
+ * {@code user_timeline} table of each subscriber of its subject (fan-out on write), so that reading
+ * a feed page is a single indexed range scan instead of a join between subscriptions and posts.
+ * Fan-out runs in the background after the post transaction commits and writes rows in JDBC
+ * batches of {@code orion.feed.timeline.batch-size}. Once a subscription is committed, the latest
+ * {@code orion.feed.timeline.backfill-limit} posts of the subject are backfilled in the background;
+ * unsubscribing prunes them inside its transaction. When disabled, every method is a no-op.</p>
+ *
+ * <p>Backfilling after the commit also covers the posts whose fan-out read the subscribers before the
+ * subscription was visible: such a post was committed before its fan-out read them, hence before the
+ * backfill reads the posts.</p>
+ */
+@Service
+public class TimelineService {
+    private static final String INSERT_TIMELINE_ENTRY =
+            "insert ignore into user_timeline (user_id, post_id, ts) values (?, ?, ?)";
+
+    private final UserTimelineRepository userTimelineRepository;
+    private final SubscriptionRepository subscriptionRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final FeedCache feedCache;
+    private final boolean enabled;
+    private final int batchSize;
+    private final int backfillLimit;
+
+    /**
+     * Construct a new {@code TimelineService}.
+     *
+     * @param userTimelineRepository repository used to read, backfill and prune timeline entries
+     * @param subscriptionRepository repository used to find the subscribers of a subject
+     * @param jdbcTemplate template used for batched fan-out inserts
+     * @param feedCache cache of feed pages, invalidated once the fan-out is written
+     * @param enabled whether the timeline mode is active
+     * @param batchSize number of rows sent per JDBC batch during fan-out
+     * @param backfillLimit maximum number of posts of a subject added to a timeline on subscription
+     */
+    public TimelineService(UserTimelineRepository userTimelineRepository,
+                           SubscriptionRepository subscriptionRepository,
+                           JdbcTemplate jdbcTemplate,
+                           FeedCache feedCache,
+                           @Value("${orion.feed.timeline.enabled:false}") boolean enabled,
+                           @Value("${orion.feed.timeline.batch-size:500}") int batchSize,
+                           @Value("${orion.feed.timeline.backfill-limit:500}") int backfillLimit) {
+        this.userTimelineRepository = userTimelineRepository;
+        this.subscriptionRepository = subscriptionRepository;
+        this.jdbcTemplate = jdbcTemplate;
+        this.feedCache = feedCache;
+        this.enabled = enabled;
+        this.batchSize = batchSize;
+        this.backfillLimit = backfillLimit;
+    }
+
+    /**
+     * Tell whether feed reads should be served from the timeline table.
+     *
+     * @return {@code true} if the timeline mode is active
+     */
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Read one page of the user's timeline, most recent first.
+     *
+     * @param userId identifier of the user
+     * @param cursor position after which to read, or {@code null} for the first page
+     * @param pageable limit of rows to read
+     * @return a {@code List} of {@code PostListDto} for the page
+     */
+    public List<PostListDto> findPage(Long userId, KeysetCursor cursor, Pageable pageable) {
+        if (cursor == null) {
+            return userTimelineRepository.findTimelineFirstPage(userId, pageable);
+        }
+        return userTimelineRepository.findTimelinePageAfter(userId, cursor.getTimestamp(), cursor.getId(), pageable);
+    }
+
+    /**
+     * Stream the whole timeline of the user, most recent first.
+     *
+     * <p>The returned stream holds an open database cursor: it must be consumed and closed
+     * inside a transaction.</p>
+     *
+     * @param userId identifier of the user
+     * @return a {@code Stream} of {@code PostListDto}
+     */
+    public Stream<PostListDto> streamTimeline(Long userId) {
+        return userTimelineRepository.streamTimeline(userId);
+    }
+
+    /**
+     * Append a newly created post to the timeline of every subscriber of its subject.
+     *
+     * <p>Runs asynchronously once the post transaction has committed. Rows are inserted in
+     * batches and duplicates are ignored, so a retried fan-out is harmless. The subscribers'
+     * cached feed pages are invalidated again once the rows are written.</p>
+     *
+     * @param event the event describing the created post
+     */
+    @Async
+    @TransactionalEventListener
+    public void onPostCreated(PostCreatedEvent event) {
+        if (!enabled) {
+            return;
+        }
+
+        List<Long> subscriberIds = subscriptionRepository.findUserIdsBySubjectId(event.getSubjectId());
+        Timestamp ts = Timestamp.valueOf(event.getUpdatedAt());
+        jdbcTemplate.batchUpdate(INSERT_TIMELINE_ENTRY, subscriberIds, batchSize, (preparedStatement, subscriberId) -> {
+            preparedStatement.setLong(1, subscriberId);
+            preparedStatement.setLong(2, event.getPostId());
+            preparedStatement.setTimestamp(3, ts);
+        });
+        feedCache.invalidateUsers(subscriberIds);
+    }
+
+    /**
+     * Add the latest posts of a subject to the user's timeline once the subscription is committed.
+     *
+     * <p>Runs asynchronously in its own transaction, so that subscribing does not wait for it. At most
+     * {@code orion.feed.timeline.backfill-limit} posts are inserted, and none if the subscription was
+     * removed in the meantime. The user's cached feed pages are invalidated once the rows are written.</p>
+     *
+     * @param event the event describing the subscription change
+     */
+    @Async
+    @TransactionalEventListener
+    @Transactional(Transactional.TxType.REQUIRES_NEW)
+    public void onSubscriptionChanged(SubscriptionChangedEvent event) {
+        if (!enabled || !event.isSubscribed()) {
+            return;
+        }
+
+        userTimelineRepository.backfillSubject(event.getUserId(), event.getSubjectId(), backfillLimit);
+        feedCache.invalidateUser(event.getUserId());
+    }
+
+    /**
+     * Remove the posts of subjects from the user's timeline after unsubscriptions.
+     *
+     * <p>Must be called inside the unsubscribing transaction.</p>
+     *
+     * @param userId identifier of the unsubscribing user
+     * @param subjectIds identifiers of the subjects
+     */
+    public void pruneSubjects(Long userId, Collection<Long> subjectIds) {
+        if (enabled) {
+            userTimelineRepository.pruneSubjects(userId, subjectIds);
+        }
+    }
+}
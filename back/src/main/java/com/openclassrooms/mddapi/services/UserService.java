@@ -2,14 +2,19 @@ package com.openclassrooms.mddapi.services;
 
 import com.openclassrooms.mddapi.DTO.RegisterUserDto;
 import com.openclassrooms.mddapi.DTO.UserDto;
+import com.openclassrooms.mddapi.caches.IdentityCache;
+import com.openclassrooms.mddapi.events.UserUpdatedEvent;
 import com.openclassrooms.mddapi.models.User;
 import com.openclassrooms.mddapi.repositories.UserRepository;
+import com.openclassrooms.mddapi.security.services.PasswordHashingService;
 import jakarta.persistence.EntityManager;
 import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.PersistenceException;
 import lombok.Data;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.dao.DataIntegrityViolationException;
-import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.time.LocalDateTime;
 import java.util.Optional;
@@ -18,15 +23,20 @@ import java.util.Optional;
  * Service that manages user operations such as creation, update, retrieval and DTO conversion.
  *
  * <p>This service delegates persistence operations to {@code UserRepository} and uses
- * {@code BCryptPasswordEncoder} to encode passwords. It can also provide a JPA reference
- * to a User via {@code EntityManager#getReference}.</p>
+ * {@code PasswordHashingService} to encode passwords off the request threads. It can also
+ * provide a JPA reference to a User via {@code EntityManager#getReference}. Lookups by
+ * identifier or id on the request path go through {@code IdentityCache}, which is refreshed
+ * whenever a user is saved or updated.</p>
  */
 @Data
 @Service
 public class UserService {
 
     private final UserRepository userRepository;
-    private final BCryptPasswordEncoder passwordEncoder;
+    private final PasswordHashingService passwordHashingService;
+    private final IdentityCache identityCache;
+    private final ApplicationEventPublisher eventPublisher;
+    private final TransactionTemplate transactionTemplate;
 
     @PersistenceContext
     private EntityManager entityManager;
@@ -35,11 +45,18 @@ public class UserService {
      * Create a new instance of {@code UserService}.
      *
      * @param userRepository  repository used to persist and query users
-     * @param passwordEncoder encoder used to hash user passwords
+     * @param passwordHashingService service hashing user passwords on its bounded executor
+     * @param identityCache cache resolving identifiers and ids to user profiles
+     * @param eventPublisher publisher used to refresh the cached profile once an update is committed
+     * @param transactionTemplate template running a partial update in a transaction that excludes password hashing
      */
-    public UserService(UserRepository userRepository, BCryptPasswordEncoder passwordEncoder) {
+    public UserService(UserRepository userRepository, PasswordHashingService passwordHashingService, IdentityCache identityCache,
+                       ApplicationEventPublisher eventPublisher, TransactionTemplate transactionTemplate) {
         this.userRepository = userRepository;
-        this.passwordEncoder = passwordEncoder;
+        this.passwordHashingService = passwordHashingService;
+        this.identityCache = identityCache;
+        this.eventPublisher = eventPublisher;
+        this.transactionTemplate = transactionTemplate;
     }
 
     /**
@@ -63,9 +80,11 @@ public class UserService {
             throw new IllegalArgumentException("User already exists.");
         }
 
-        newUser.setPassword(passwordEncoder.encode(newUser.getPassword()));
+        newUser.setPassword(passwordHashingService.encode(newUser.getPassword()));
         try {
-            return userRepository.save(newUser);
+            User savedUser = userRepository.save(newUser);
+            identityCache.put(savedUser);
+            return savedUser;
         } catch (DataIntegrityViolationException exception) {
             throw new IllegalArgumentException("User already exists.", exception);
         }
@@ -75,8 +94,9 @@ public class UserService {
      * Update an existing user identified by {@code userId} using values from the DTO.
      *
      * <p>The method verifies that a user exists by email or name before updating. The
-     * {@code updatedAt} timestamp is set to the current time and the password is encoded
-     * prior to saving. If the user does not exist, an {@code IllegalArgumentException} is thrown.</p>
+     * {@code createdAt} timestamp is kept from the current row, {@code updatedAt} is set to the
+     * current time and the password is encoded prior to saving. If the user does not exist, an
+     * {@code IllegalArgumentException} is thrown.</p>
      *
      * @param userId          identifier of the user to update
      * @param registerUserDto DTO containing new values for the user
@@ -92,17 +112,85 @@ public class UserService {
             throw new IllegalArgumentException("User does not exist.");
         }
 
+        User currentUser = userRepository.findById(userId)
+                .orElseThrow(() -> new IllegalArgumentException("User does not exist."));
+        boolean nameChanged = !updateUser.getName().equals(currentUser.getName());
         updateUser.setId(userId);
+        updateUser.setCreatedAt(currentUser.getCreatedAt());
         updateUser.setUpdatedAt(LocalDateTime.now());
-        updateUser.setPassword(passwordEncoder.encode(updateUser.getPassword()));
+        updateUser.setPassword(passwordHashingService.encode(updateUser.getPassword()));
 
         try {
-            return userRepository.save(updateUser);
+            User updatedUser = userRepository.save(updateUser);
+            identityCache.put(updatedUser);
+            // published outside of a transaction: only the listeners executed without one receive it
+            eventPublisher.publishEvent(toUserUpdatedEvent(updatedUser, nameChanged));
+            return updatedUser;
         } catch (DataIntegrityViolationException exception) {
+            identityCache.invalidate(userId);
             throw new IllegalArgumentException("User update failed.", exception);
         }
     }
 
+    /**
+     * Apply a partial update to the profile of the user identified by {@code userId}.
+     *
+     * <p>The current row is loaded once and only the non-blank fields of the DTO are applied; the
+     * email is normalized to lower case. The password is hashed only when a new one is supplied, before
+     * the transaction starts, so that the slow hash never holds a connection or row lock.
+     * Thanks to {@code @DynamicUpdate} the resulting {@code UPDATE} only writes the changed columns,
+     * and no statement is issued at all when nothing changed. The cached profile is only replaced
+     * once the transaction has committed, so that it never holds a state that was rolled back, from a
+     * copy of the flushed state rather than the entity itself.</p>
+     *
+     * @param userId          identifier of the user to update
+     * @param registerUserDto DTO containing the fields to change, the others being {@code null} or blank
+     * @return the up-to-date {@code User} entity
+     * @throws IllegalArgumentException if the user does not exist or if the new name or email is already taken
+     */
+    public User patch(Long userId, RegisterUserDto registerUserDto) {
+        String password = registerUserDto.getPassword();
+        String passwordHash = password != null && !password.isBlank() ? passwordHashingService.encode(password) : null;
+
+        return transactionTemplate.execute(status -> patchInTransaction(userId, registerUserDto, passwordHash));
+    }
+
+    private User patchInTransaction(Long userId, RegisterUserDto registerUserDto, String passwordHash) {
+        User user = userRepository.findById(userId)
+                .orElseThrow(() -> new IllegalArgumentException("User does not exist."));
+
+        boolean changed = false;
+        boolean nameChanged = false;
+        String name = registerUserDto.getName();
+        if(name != null && !name.isBlank() && !name.equals(user.getName())) {
+            user.setName(name);
+            changed = true;
+            nameChanged = true;
+        }
+        String email = registerUserDto.getEmail();
+        if(email != null && !email.isBlank() && !email.toLowerCase().equals(user.getEmail())) {
+            user.setEmail(email.toLowerCase());
+            changed = true;
+        }
+        if(passwordHash != null) {
+            user.setPassword(passwordHash);
+            changed = true;
+        }
+
+        if(!changed) {
+            return user;
+        }
+
+        try {
+            entityManager.flush();
+        } catch (PersistenceException exception) {
+            identityCache.invalidate(userId);
+            throw new IllegalArgumentException("User update failed.", exception);
+        }
+        eventPublisher.publishEvent(toUserUpdatedEvent(user, nameChanged));
+        return user;
+    }
+
     /**
      * Find a user by its identifier.
      *
@@ -114,13 +202,61 @@ public class UserService {
     }
 
     /**
-     * Find a user by email. The provided email is normalized to lower case before querying.
+     * Tell whether a user exists, answered from {@code IdentityCache} when possible.
+     *
+     * @param userId identifier of the user
+     * @return {@code true} if the user exists
+     */
+    public boolean existsById(Long userId) {
+        return findProfileById(userId).isPresent();
+    }
+
+    /**
+     * Find the slim profile of a user by its identifier, from {@code IdentityCache} when possible.
+     *
+     * @param userId identifier of the user
+     * @return an {@code Optional} containing the {@code UserProfile} if found, otherwise {@code Optional.empty()}
+     */
+    public Optional<IdentityCache.UserProfile> findProfileById(Long userId) {
+        return identityCache.getById(userId, userRepository::findById);
+    }
+
+    /**
+     * Find the slim profile of a user by email, from {@code IdentityCache} when possible.
+     * The email is normalized once and the same value is used as cache key and in the query.
+     * Unknown emails are cached too, so repeated attempts do not reach the database.
+     *
+     * @param email email to search for
+     * @return an {@code Optional} containing the {@code UserProfile} if found, otherwise {@code Optional.empty()}
+     */
+    public Optional<IdentityCache.UserProfile> findProfileByEmail(String email) {
+        String normalizedEmail = normalizeEmail(email);
+        return identityCache.getByEmail(normalizedEmail, () -> userRepository.findByEmail(normalizedEmail));
+    }
+
+    /**
+     * Find the slim profile of a user by login identifier, tried as an email then as a name,
+     * from {@code IdentityCache} when possible. The identifier is trimmed, and lower-cased when
+     * tried as an email; each lookup queries the database with the value it is cached under.
+     * Unknown identifiers are cached too, so repeated attempts do not reach the database.
+     *
+     * @param identifier email or name to search for
+     * @return an {@code Optional} containing the {@code UserProfile} if found, otherwise {@code Optional.empty()}
+     */
+    public Optional<IdentityCache.UserProfile> findProfileByIdentifier(String identifier) {
+        String name = identifier.trim();
+        return findProfileByEmail(identifier)
+                .or(() -> identityCache.getByName(name, () -> userRepository.findByName(name)));
+    }
+
+    /**
+     * Find a user by email. The provided email is trimmed and normalized to lower case before querying.
      *
      * @param email email to search for
      * @return an {@code Optional} containing the {@code User} if found, otherwise {@code Optional.empty()}
      */
     public Optional<User> findByEmail(String email) {
-        return userRepository.findByEmail(email.toLowerCase());
+        return userRepository.findByEmail(normalizeEmail(email));
     }
 
     /**
@@ -166,6 +302,32 @@ public class UserService {
         return userDto;
     }
 
+    /**
+     * Convert a cached {@code UserProfile} to a {@code UserDto} without exposing the password.
+     *
+     * @param userProfile the profile to convert
+     * @return a {@code UserDto} containing public user fields
+     */
+    public UserDto convertUserProfileToUserDto(IdentityCache.UserProfile userProfile) {
+        UserDto userDto = new UserDto();
+        userDto.setId(userProfile.id());
+        userDto.setName(userProfile.name());
+        userDto.setEmail(userProfile.email());
+        userDto.setCreatedAt(userProfile.createdAt());
+        userDto.setUpdatedAt(userProfile.updatedAt());
+
+        return userDto;
+    }
+
+    private static UserUpdatedEvent toUserUpdatedEvent(User user, boolean nameChanged) {
+        return new UserUpdatedEvent(user.getId(), user.getName(), user.getEmail(), user.getPassword(),
+                user.getCreatedAt(), user.getUpdatedAt(), nameChanged);
+    }
+
+    private static String normalizeEmail(String email) {
+        return email.trim().toLowerCase();
+    }
+
     /**
      * Convert a {@code RegisterUserDto} into a new {@code User} entity instance.
      *
@@ -0,0 +1,58 @@
+-- Schema of the original entities, before any optimisation.
+-- Databases created by hibernate's ddl-auto=update already hold these tables: they are baselined
+-- at version 0, so this script runs on them too, and IF NOT EXISTS turns it into a no-op.
+
+CREATE TABLE IF NOT EXISTS users (
+    id         BIGINT       NOT NULL AUTO_INCREMENT,
+    name       VARCHAR(80)  NOT NULL,
+    email      VARCHAR(255) NOT NULL,
+    password   VARCHAR(255) NOT NULL,
+    created_at DATETIME(6),
+    updated_at DATETIME(6),
+    PRIMARY KEY (id),
+    CONSTRAINT uk_users_name UNIQUE (name),
+    CONSTRAINT uk_users_email UNIQUE (email)
+) ENGINE = InnoDB;
+
+CREATE TABLE IF NOT EXISTS subjects (
+    id          BIGINT        NOT NULL AUTO_INCREMENT,
+    title       VARCHAR(300)  NOT NULL,
+    description VARCHAR(3000) NOT NULL,
+    created_at  DATETIME(6),
+    updated_at  DATETIME(6),
+    PRIMARY KEY (id)
+) ENGINE = InnoDB;
+
+CREATE TABLE IF NOT EXISTS posts (
+    id         BIGINT         NOT NULL AUTO_INCREMENT,
+    title      VARCHAR(300)   NOT NULL,
+    content    VARCHAR(15000) NOT NULL,
+    created_at DATETIME(6),
+    updated_at DATETIME(6),
+    user_id    BIGINT         NOT NULL,
+    subject_id BIGINT         NOT NULL,
+    PRIMARY KEY (id),
+    CONSTRAINT fk_post_user FOREIGN KEY (user_id) REFERENCES users (id),
+    CONSTRAINT fk_post_subject FOREIGN KEY (subject_id) REFERENCES subjects (id)
+) ENGINE = InnoDB;
+
+CREATE TABLE IF NOT EXISTS comments (
+    id         BIGINT        NOT NULL AUTO_INCREMENT,
+    message    VARCHAR(2000) NOT NULL,
+    created_at DATETIME(6),
+    updated_at DATETIME(6),
+    user_id    BIGINT        NOT NULL,
+    post_id    BIGINT        NOT NULL,
+    PRIMARY KEY (id),
+    CONSTRAINT fk_comment_user FOREIGN KEY (user_id) REFERENCES users (id),
+    CONSTRAINT fk_comment_post FOREIGN KEY (post_id) REFERENCES posts (id)
+) ENGINE = InnoDB;
+
+CREATE TABLE IF NOT EXISTS subscriptions (
+    id         BIGINT NOT NULL AUTO_INCREMENT,
+    user_id    BIGINT NOT NULL,
+    subject_id BIGINT NOT NULL,
+    PRIMARY KEY (id),
+    CONSTRAINT fk_subscription_user FOREIGN KEY (user_id) REFERENCES users (id),
+    CONSTRAINT fk_subscription_subject FOREIGN KEY (subject_id) REFERENCES subjects (id)
+) ENGINE = InnoDB;
@@ -0,0 +1,7 @@
+-- One-off backfill of the list previews of posts written before the excerpt column existed, computed
+-- like PostService.buildExcerpt. It used to run on every start; as a versioned migration it runs once
+-- per database, and new posts get their excerpt when they are created.
+
+UPDATE posts
+SET excerpt = CASE WHEN CHAR_LENGTH(content) <= 300 THEN content ELSE CONCAT(SUBSTRING(content, 1, 300), '...') END
+WHERE excerpt IS NULL;
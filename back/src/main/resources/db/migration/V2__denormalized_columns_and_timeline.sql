@@ -0,0 +1,43 @@
+-- Denormalised columns read by the feed and the catalog, and the optional per-user timeline table.
+-- MySQL has no ADD COLUMN IF NOT EXISTS: each column is only added when information_schema does not
+-- list it yet, since databases created by ddl-auto=update may already have it.
+
+SET @ddl = IF((SELECT COUNT(*) FROM information_schema.columns
+                WHERE table_schema = DATABASE() AND table_name = 'posts' AND column_name = 'excerpt') = 0,
+               'ALTER TABLE posts ADD COLUMN excerpt VARCHAR(303)',
+               'DO 0');
+PREPARE statement FROM @ddl;
+EXECUTE statement;
+DEALLOCATE PREPARE statement;
+
+SET @ddl = IF((SELECT COUNT(*) FROM information_schema.columns
+                WHERE table_schema = DATABASE() AND table_name = 'posts' AND column_name = 'comment_count') = 0,
+               'ALTER TABLE posts ADD COLUMN comment_count BIGINT DEFAULT 0 NOT NULL',
+               'DO 0');
+PREPARE statement FROM @ddl;
+EXECUTE statement;
+DEALLOCATE PREPARE statement;
+
+SET @ddl = IF((SELECT COUNT(*) FROM information_schema.columns
+                WHERE table_schema = DATABASE() AND table_name = 'subjects' AND column_name = 'subscriber_count') = 0,
+               'ALTER TABLE subjects ADD COLUMN subscriber_count BIGINT DEFAULT 0 NOT NULL',
+               'DO 0');
+PREPARE statement FROM @ddl;
+EXECUTE statement;
+DEALLOCATE PREPARE statement;
+
+CREATE TABLE IF NOT EXISTS user_timeline (
+    user_id BIGINT      NOT NULL,
+    post_id BIGINT      NOT NULL,
+    ts      DATETIME(6) NOT NULL,
+    PRIMARY KEY (user_id, post_id)
+) ENGINE = InnoDB;
+
+-- counters of rows that existed before the counter columns
+UPDATE posts p
+SET p.comment_count = (SELECT COUNT(*) FROM comments c WHERE c.post_id = p.id)
+WHERE p.comment_count <> (SELECT COUNT(*) FROM comments c WHERE c.post_id = p.id);
+
+UPDATE subjects s
+SET s.subscriber_count = (SELECT COUNT(*) FROM subscriptions sub WHERE sub.subject_id = s.id)
+WHERE s.subscriber_count <> (SELECT COUNT(*) FROM subscriptions sub WHERE sub.subject_id = s.id);
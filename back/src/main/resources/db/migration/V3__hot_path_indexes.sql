@@ -0,0 +1,72 @@
+-- Indexes of the hot queries. MySQL has no CREATE INDEX IF NOT EXISTS: each index is only created when
+-- information_schema does not list it yet, since databases created by ddl-auto=update may already have it.
+
+-- duplicate subscriptions left by double clicks would break the unique index: keep the oldest of each pair
+DELETE s FROM subscriptions s
+JOIN subscriptions kept ON kept.user_id = s.user_id AND kept.subject_id = s.subject_id AND kept.id < s.id;
+
+UPDATE subjects s
+SET s.subscriber_count = (SELECT COUNT(*) FROM subscriptions sub WHERE sub.subject_id = s.id)
+WHERE s.subscriber_count <> (SELECT COUNT(*) FROM subscriptions sub WHERE sub.subject_id = s.id);
+
+-- feed pages and deltas: one range of (subject_id, updated_at, id) per subject, already in feed order
+SET @ddl = IF((SELECT COUNT(*) FROM information_schema.statistics
+                WHERE table_schema = DATABASE() AND table_name = 'posts' AND index_name = 'idx_posts_subject_updated_id') = 0,
+               'CREATE INDEX idx_posts_subject_updated_id ON posts (subject_id, updated_at, id)',
+               'DO 0');
+PREPARE statement FROM @ddl;
+EXECUTE statement;
+DEALLOCATE PREPARE statement;
+
+-- comment pages of a post, oldest first
+SET @ddl = IF((SELECT COUNT(*) FROM information_schema.statistics
+                WHERE table_schema = DATABASE() AND table_name = 'comments' AND index_name = 'idx_comments_post_created_id') = 0,
+               'CREATE INDEX idx_comments_post_created_id ON comments (post_id, created_at, id)',
+               'DO 0');
+PREPARE statement FROM @ddl;
+EXECUTE statement;
+DEALLOCATE PREPARE statement;
+
+-- one subscription per user and subject, also serving the lookups of a user's subscriptions
+SET @ddl = IF((SELECT COUNT(*) FROM information_schema.statistics
+                WHERE table_schema = DATABASE() AND table_name = 'subscriptions' AND index_name = 'uk_subscriptions_user_subject') = 0,
+               'CREATE UNIQUE INDEX uk_subscriptions_user_subject ON subscriptions (user_id, subject_id)',
+               'DO 0');
+PREPARE statement FROM @ddl;
+EXECUTE statement;
+DEALLOCATE PREPARE statement;
+
+-- timeline pages of a user, most recent first
+SET @ddl = IF((SELECT COUNT(*) FROM information_schema.statistics
+                WHERE table_schema = DATABASE() AND table_name = 'user_timeline' AND index_name = 'idx_user_timeline_user_ts_post') = 0,
+               'CREATE INDEX idx_user_timeline_user_ts_post ON user_timeline (user_id, ts, post_id)',
+               'DO 0');
+PREPARE statement FROM @ddl;
+EXECUTE statement;
+DEALLOCATE PREPARE statement;
+
+-- the single-column indexes MySQL created for these foreign keys are now prefixes of the indexes above:
+-- dropping them saves a write per insert and leaves the planner a single candidate
+SET @ddl = IF((SELECT COUNT(*) FROM information_schema.statistics
+                WHERE table_schema = DATABASE() AND table_name = 'posts' AND index_name = 'fk_post_subject') > 0,
+               'DROP INDEX fk_post_subject ON posts',
+               'DO 0');
+PREPARE statement FROM @ddl;
+EXECUTE statement;
+DEALLOCATE PREPARE statement;
+
+SET @ddl = IF((SELECT COUNT(*) FROM information_schema.statistics
+                WHERE table_schema = DATABASE() AND table_name = 'comments' AND index_name = 'fk_comment_post') > 0,
+               'DROP INDEX fk_comment_post ON comments',
+               'DO 0');
+PREPARE statement FROM @ddl;
+EXECUTE statement;
+DEALLOCATE PREPARE statement;
+
+SET @ddl = IF((SELECT COUNT(*) FROM information_schema.statistics
+                WHERE table_schema = DATABASE() AND table_name = 'subscriptions' AND index_name = 'fk_subscription_user') > 0,
+               'DROP INDEX fk_subscription_user ON subscriptions',
+               'DO 0');
+PREPARE statement FROM @ddl;
+EXECUTE statement;
+DEALLOCATE PREPARE statement;
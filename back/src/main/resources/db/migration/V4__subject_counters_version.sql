@@ -0,0 +1,5 @@
+-- Version of the subscriber counter of each subject, incremented with every counter change and never
+-- decremented, from which the catalog version is computed: a sum of counters can come back to a value it
+-- had before, this one cannot.
+
+ALTER TABLE subjects ADD COLUMN counters_version BIGINT DEFAULT 0 NOT NULL;
@@ -0,0 +1,56 @@
+package com.openclassrooms.mddapi.caches;
+
+import com.openclassrooms.mddapi.DTO.PostPageDto;
+import com.openclassrooms.mddapi.events.UserUpdatedEvent;
+import com.openclassrooms.mddapi.repositories.SubscriptionRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+
+/**
+ * Checks that {@code FeedCache} never stores a page loaded before an invalidation, without a database.
+ */
+class FeedCacheTests {
+    private FeedCache feedCache;
+
+    @BeforeEach
+    void setUp() {
+        feedCache = new FeedCache(mock(SubscriptionRepository.class), new SimpleMeterRegistry(), 1_000, Duration.ofMinutes(5));
+    }
+
+    @Test
+    void pageLoadedWithoutInvalidationIsStored() {
+        long generation = feedCache.generation(1L);
+
+        feedCache.put(1L, 20, new PostPageDto(), generation);
+
+        assertThat(feedCache.get(1L, 20)).isNotNull();
+    }
+
+    @Test
+    void pageLoadedBeforeAnInvalidationIsNotStored() {
+        long generation = feedCache.generation(1L);
+        feedCache.invalidateUser(1L);
+
+        feedCache.put(1L, 20, new PostPageDto(), generation);
+
+        assertThat(feedCache.get(1L, 20)).isNull();
+    }
+
+    @Test
+    void authorRenameInvalidatesEveryPage() {
+        feedCache.put(1L, 20, new PostPageDto(), feedCache.generation(1L));
+        long generation = feedCache.generation(2L);
+
+        feedCache.onUserUpdated(new UserUpdatedEvent(3L, "new name", "user@x.com", "hash", null, null, true));
+        feedCache.put(2L, 20, new PostPageDto(), generation);
+
+        assertThat(feedCache.get(1L, 20)).isNull();
+        assertThat(feedCache.get(2L, 20)).isNull();
+    }
+}
@@ -0,0 +1,55 @@
+package com.openclassrooms.mddapi.caches;
+
+import com.openclassrooms.mddapi.models.User;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Checks that {@code IdentityCache} only remembers the identifiers it was asked for and never
+ * resolves an identifier the user no longer has, without a database.
+ */
+class IdentityCacheTests {
+    private IdentityCache identityCache;
+
+    @BeforeEach
+    void setUp() {
+        identityCache = new IdentityCache(new SimpleMeterRegistry(), 1_000, Duration.ofMinutes(30), Duration.ofMinutes(1));
+    }
+
+    @Test
+    void unknownIdentifierOnlyHidesTheExactQueriedValue() {
+        identityCache.getByEmail(" victim@x.com", Optional::empty);
+
+        Optional<IdentityCache.UserProfile> profile =
+                identityCache.getByEmail("victim@x.com", () -> Optional.of(user(1L, "victim", "victim@x.com")));
+
+        assertThat(profile).map(IdentityCache.UserProfile::id).contains(1L);
+    }
+
+    @Test
+    void identifiersOfAnUpdatedUserAreReplaced() {
+        identityCache.put(user(1L, "bob", "old@x.com"));
+        identityCache.put(user(1L, "bob", "new@x.com"));
+
+        assertThat(identityCache.getByEmail("old@x.com", Optional::empty)).isEmpty();
+        assertThat(identityCache.getByEmail("new@x.com", Optional::empty)).map(IdentityCache.UserProfile::id).contains(1L);
+    }
+
+    private static User user(Long id, String name, String email) {
+        User user = new User();
+        user.setId(id);
+        user.setName(name);
+        user.setEmail(email);
+        user.setPassword("hash");
+        user.setCreatedAt(LocalDateTime.of(2026, 1, 1, 0, 0));
+        user.setUpdatedAt(LocalDateTime.of(2026, 1, 1, 0, 0));
+        return user;
+    }
+}
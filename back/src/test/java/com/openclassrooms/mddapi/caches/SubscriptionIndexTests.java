@@ -0,0 +1,97 @@
+package com.openclassrooms.mddapi.caches;
+
+import com.openclassrooms.mddapi.events.SubscriptionChangedEvent;
+import com.openclassrooms.mddapi.repositories.SubscriptionRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Checks the sorted subject id arrays of {@code SubscriptionIndex} and how committed
+ * subscription changes are applied to them, without a database.
+ */
+class SubscriptionIndexTests {
+    private SubscriptionRepository subscriptionRepository;
+    private SubscriptionIndex subscriptionIndex;
+
+    @BeforeEach
+    void setUp() {
+        subscriptionRepository = mock(SubscriptionRepository.class);
+        subscriptionIndex = new SubscriptionIndex(subscriptionRepository, new SimpleMeterRegistry(), 1_000, Duration.ofMinutes(30));
+    }
+
+    @Test
+    void withInsertsTheIdInOrderInACopy() {
+        long[] subjectIds = {2, 5, 9};
+
+        assertThat(SubscriptionIndex.with(subjectIds, 1)).containsExactly(1, 2, 5, 9);
+        assertThat(SubscriptionIndex.with(subjectIds, 7)).containsExactly(2, 5, 7, 9);
+        assertThat(SubscriptionIndex.with(subjectIds, 12)).containsExactly(2, 5, 9, 12);
+        assertThat(SubscriptionIndex.with(new long[0], 3)).containsExactly(3);
+        assertThat(subjectIds).containsExactly(2, 5, 9);
+    }
+
+    @Test
+    void withReturnsTheSameArrayWhenTheIdIsPresent() {
+        long[] subjectIds = {2, 5, 9};
+
+        assertThat(SubscriptionIndex.with(subjectIds, 5)).isSameAs(subjectIds);
+    }
+
+    @Test
+    void withoutRemovesTheIdInACopy() {
+        long[] subjectIds = {2, 5, 9};
+
+        assertThat(SubscriptionIndex.without(subjectIds, 2)).containsExactly(5, 9);
+        assertThat(SubscriptionIndex.without(subjectIds, 5)).containsExactly(2, 9);
+        assertThat(SubscriptionIndex.without(subjectIds, 9)).containsExactly(2, 5);
+        assertThat(SubscriptionIndex.without(new long[] {4}, 4)).isEmpty();
+        assertThat(subjectIds).containsExactly(2, 5, 9);
+    }
+
+    @Test
+    void withoutReturnsTheSameArrayWhenTheIdIsAbsent() {
+        long[] subjectIds = {2, 5, 9};
+
+        assertThat(SubscriptionIndex.without(subjectIds, 4)).isSameAs(subjectIds);
+    }
+
+    @Test
+    void loadedIdsAreSortedAndCached() {
+        when(subscriptionRepository.findSubjectIdsByUserId(1L)).thenReturn(List.of(9L, 2L, 5L));
+
+        assertThat(subscriptionIndex.getSubjectIds(1L)).containsExactly(2, 5, 9);
+        assertThat(subscriptionIndex.isSubscribed(1L, 5)).isTrue();
+        assertThat(subscriptionIndex.isSubscribed(1L, 4)).isFalse();
+        verify(subscriptionRepository, times(1)).findSubjectIdsByUserId(1L);
+    }
+
+    @Test
+    void committedChangesUpdateACachedEntry() {
+        when(subscriptionRepository.findSubjectIdsByUserId(1L)).thenReturn(List.of(2L, 5L));
+        subscriptionIndex.getSubjectIds(1L);
+
+        subscriptionIndex.onSubscriptionChanged(new SubscriptionChangedEvent(1L, 3L, true));
+        subscriptionIndex.onSubscriptionChanged(new SubscriptionChangedEvent(1L, 5L, false));
+
+        assertThat(subscriptionIndex.getSubjectIds(1L)).containsExactly(2, 3);
+        verify(subscriptionRepository, times(1)).findSubjectIdsByUserId(1L);
+    }
+
+    @Test
+    void committedChangesDoNotLoadAnAbsentEntry() {
+        subscriptionIndex.onSubscriptionChanged(new SubscriptionChangedEvent(1L, 3L, true));
+
+        verify(subscriptionRepository, never()).findSubjectIdsByUserId(1L);
+    }
+}
@@ -0,0 +1,38 @@
+package com.openclassrooms.mddapi.controllers;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Checks how the {@code Accept-Encoding} header decides whether the subject catalog is sent gzip compressed.
+ */
+class AcceptEncodingTests {
+
+    @Test
+    void gzipIsAcceptedWhenListedWithANonZeroQuality() {
+        assertThat(SubjectController.acceptsGzip("gzip")).isTrue();
+        assertThat(SubjectController.acceptsGzip("deflate, GZIP;q=0.5")).isTrue();
+        assertThat(SubjectController.acceptsGzip("br;q=1.0, x-gzip ; q=0.001")).isTrue();
+    }
+
+    @Test
+    void gzipIsRefusedWithAZeroOrInvalidQuality() {
+        assertThat(SubjectController.acceptsGzip("gzip;q=0")).isFalse();
+        assertThat(SubjectController.acceptsGzip("gzip;q=0.000, *")).isFalse();
+        assertThat(SubjectController.acceptsGzip("gzip;q=high")).isFalse();
+    }
+
+    @Test
+    void otherCodingsContainingGzipAreIgnored() {
+        assertThat(SubjectController.acceptsGzip("x-gzip-foo")).isFalse();
+        assertThat(SubjectController.acceptsGzip("gzipped, identity")).isFalse();
+        assertThat(SubjectController.acceptsGzip(null)).isFalse();
+    }
+
+    @Test
+    void wildcardAcceptsGzipUnlessRefused() {
+        assertThat(SubjectController.acceptsGzip("*")).isTrue();
+        assertThat(SubjectController.acceptsGzip("*;q=0")).isFalse();
+    }
+}
@@ -0,0 +1,190 @@
+package com.openclassrooms.mddapi.repositories;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfEnvironmentVariable;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Checks with {@code EXPLAIN} that the feed, comment and subscription queries are served by the
+ * indexes created by the schema migrations, and that pages are read in index order without a sort.
+ * The statements explained are the ones the repositories send: the SQL Hibernate generates for the
+ * JPQL queries, captured by a statement inspector, and the native feed merge built by
+ * {@link PostRepository#subjectFeedsSql}.
+ * Needs the MySQL database configured by {@code DB_URL_ORION} and is skipped without it.
+ */
+@EnabledIfEnvironmentVariable(named = "DB_URL_ORION", matches = ".+")
+@SpringBootTest(properties = "spring.jpa.properties.hibernate.session_factory.statement_inspector="
+        + "com.openclassrooms.mddapi.repositories.HotPathQueryPlanTests$CapturingStatementInspector")
+@Transactional
+class HotPathQueryPlanTests {
+    private static final int POSTS_PER_SUBJECT = 50;
+    private static final int COMMENTS = 50;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PostRepository postRepository;
+
+    @Autowired
+    private CommentRepository commentRepository;
+
+    @Autowired
+    private SubscriptionRepository subscriptionRepository;
+
+    private long userId;
+    private long firstSubjectId;
+    private long secondSubjectId;
+    private long postId;
+    private LocalDateTime cursorTimestamp;
+
+    @BeforeEach
+    void setUp() {
+        cursorTimestamp = LocalDateTime.now().plusDays(1);
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        jdbcTemplate.update("insert into users (name, email, password, created_at, updated_at) values (?, ?, ?, ?, ?)",
+                "plan-user", "plan-user@test.local", "hash", now, now);
+        userId = lastInsertId();
+
+        firstSubjectId = insertSubject("plan-subject-1", now);
+        secondSubjectId = insertSubject("plan-subject-2", now);
+        for (long subjectId : new long[] {firstSubjectId, secondSubjectId}) {
+            for (int i = 0; i < POSTS_PER_SUBJECT; i++) {
+                Timestamp updatedAt = Timestamp.valueOf(LocalDateTime.now().minusMinutes(i));
+                jdbcTemplate.update("insert into posts (title, content, excerpt, created_at, updated_at, user_id, subject_id, comment_count)"
+                                + " values (?, ?, ?, ?, ?, ?, ?, 0)",
+                        "title " + i, "content " + i, "content " + i, updatedAt, updatedAt, userId, subjectId);
+            }
+        }
+        postId = lastInsertId();
+
+        for (int i = 0; i < COMMENTS; i++) {
+            Timestamp createdAt = Timestamp.valueOf(LocalDateTime.now().plusSeconds(i));
+            jdbcTemplate.update("insert into comments (message, created_at, updated_at, user_id, post_id) values (?, ?, ?, ?, ?)",
+                    "message " + i, createdAt, createdAt, userId, postId);
+        }
+
+        jdbcTemplate.update("insert into subscriptions (user_id, subject_id) values (?, ?), (?, ?)",
+                userId, firstSubjectId, userId, secondSubjectId);
+    }
+
+    @Test
+    void subjectFeedPageJoinsTheAuthorsInIndexOrder() {
+        String sql = capture(() -> postRepository.findFeedFirstPage(List.of(firstSubjectId), PageRequest.ofSize(21)));
+
+        List<Map<String, Object>> plan = explain(sql, firstSubjectId);
+
+        assertThat(plan).anyMatch(row -> "idx_posts_subject_updated_id".equals(row.get("key")));
+        assertThat(plan).noneMatch(row -> String.valueOf(row.get("Extra")).contains("filesort"));
+    }
+
+    @Test
+    void subscribedFeedPageUsesSubjectIndex() {
+        String sql = capture(() -> postRepository.findFeedPageAfter(List.of(firstSubjectId, secondSubjectId),
+                cursorTimestamp, Long.MAX_VALUE, PageRequest.ofSize(21)));
+
+        List<Map<String, Object>> plan = explain(sql, firstSubjectId, secondSubjectId, cursorTimestamp, cursorTimestamp, Long.MAX_VALUE);
+
+        assertThat(plan).anyMatch(row -> "idx_posts_subject_updated_id".equals(row.get("key")));
+    }
+
+    @Test
+    void mergedSubjectFeedsAreEachReadInIndexOrder() {
+        String sql = PostRepository.subjectFeedsSql(2, true, 21);
+        MapSqlParameterSource parameters = new MapSqlParameterSource()
+                .addValue("subject0", firstSubjectId)
+                .addValue("subject1", secondSubjectId)
+                .addValue("updatedAt", cursorTimestamp)
+                .addValue("id", Long.MAX_VALUE);
+
+        List<Map<String, Object>> plan = new NamedParameterJdbcTemplate(jdbcTemplate).queryForList("explain " + sql, parameters);
+
+        assertThat(plan).filteredOn(row -> "p".equals(row.get("table")))
+                .hasSize(2)
+                .allMatch(row -> "idx_posts_subject_updated_id".equals(row.get("key")));
+        assertThat(plan).noneMatch(row -> String.valueOf(row.get("Extra")).contains("filesort"));
+    }
+
+    @Test
+    void commentPageJoinsTheAuthorsInIndexOrder() {
+        String sql = capture(() -> commentRepository.findPageByPostIdAfter(postId, cursorTimestamp.minusDays(1), 0L,
+                PageRequest.ofSize(21)));
+
+        List<Map<String, Object>> plan = explain(sql, postId, cursorTimestamp.minusDays(1), cursorTimestamp.minusDays(1), 0L);
+
+        assertThat(plan).anyMatch(row -> "idx_comments_post_created_id".equals(row.get("key")));
+        assertThat(plan).noneMatch(row -> String.valueOf(row.get("Extra")).contains("filesort"));
+    }
+
+    @Test
+    void subscriptionLookupUsesUniqueIndex() {
+        String sql = capture(() -> subscriptionRepository.findSubjectIdsByUserIdAndSubjectIdIn(userId, List.of(firstSubjectId)));
+
+        List<Map<String, Object>> plan = explain(sql, userId, firstSubjectId);
+
+        assertThat(plan).anyMatch(row -> "uk_subscriptions_user_subject".equals(row.get("key")));
+    }
+
+    // run the repository call and return the SQL Hibernate generated for it
+    private String capture(Runnable repositoryCall) {
+        CapturingStatementInspector.STATEMENTS.clear();
+        repositoryCall.run();
+        List<String> statements = CapturingStatementInspector.STATEMENTS;
+        assertThat(statements).isNotEmpty();
+        return statements.get(statements.size() - 1);
+    }
+
+    // the generated SQL binds the query parameters in order, then the page limit, preceded by its offset when rendered
+    private List<Map<String, Object>> explain(String sql, Object... args) {
+        List<Object> parameters = new ArrayList<>(List.of(args));
+        long placeholders = sql.chars().filter(character -> character == '?').count();
+        if (placeholders == parameters.size() + 2) {
+            parameters.add(0);
+        }
+        if (placeholders > parameters.size()) {
+            parameters.add(21);
+        }
+        return jdbcTemplate.queryForList("explain " + sql, parameters.toArray());
+    }
+
+    private long insertSubject(String title, Timestamp now) {
+        jdbcTemplate.update("insert into subjects (title, description, created_at, updated_at, subscriber_count) values (?, ?, ?, ?, 0)",
+                title, title, now, now);
+        return lastInsertId();
+    }
+
+    private long lastInsertId() {
+        Long id = jdbcTemplate.queryForObject("select last_insert_id()", Long.class);
+        return id == null ? 0 : id;
+    }
+
+    /**
+     * Records the SQL generated by Hibernate, so that the statements actually sent by the repositories are explained.
+     */
+    public static class CapturingStatementInspector implements StatementInspector {
+        private static final List<String> STATEMENTS = new CopyOnWriteArrayList<>();
+
+        @Override
+        public String inspect(String sql) {
+            STATEMENTS.add(sql);
+            return sql;
+        }
+    }
+}
@@ -0,0 +1,83 @@
+package com.openclassrooms.mddapi.services;
+
+import com.openclassrooms.mddapi.DTO.PostListDto;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Checks the k-way merge assembling a feed page from per-subject feeds, without a database.
+ */
+class FeedMergeTests {
+    private static final LocalDateTime NOON = LocalDateTime.of(2026, 1, 15, 12, 0);
+    private static final Comparator<PostListDto> FEED_ORDER =
+            Comparator.comparing(PostListDto::getUpdatedAt).thenComparing(PostListDto::getId).reversed();
+
+    @Test
+    void postsUpdatedAtTheSameTimeAreOrderedByDescendingId() {
+        List<PostListDto> firstSubject = List.of(post(6, NOON, 1), post(2, NOON, 1));
+        List<PostListDto> secondSubject = List.of(post(5, NOON, 2), post(3, NOON, 2));
+
+        List<PostListDto> merged = PostService.mergeFeeds(List.of(firstSubject, secondSubject), 10);
+
+        assertThat(merged).extracting(PostListDto::getId).containsExactly(6L, 5L, 3L, 2L);
+    }
+
+    @Test
+    void mergeStopsOnceThePageIsFull() {
+        List<PostListDto> firstSubject = List.of(post(4, NOON, 1), post(1, NOON.minusMinutes(3), 1));
+        List<PostListDto> secondSubject = List.of(post(3, NOON.minusMinutes(1), 2), post(2, NOON.minusMinutes(2), 2));
+
+        List<PostListDto> merged = PostService.mergeFeeds(List.of(firstSubject, secondSubject, List.of()), 3);
+
+        assertThat(merged).extracting(PostListDto::getId).containsExactly(4L, 3L, 2L);
+    }
+
+    @Test
+    void pagesReadAfterTheirCursorCoverTheFeedOnceInOrder() {
+        List<List<PostListDto>> subjectFeeds = List.of(new ArrayList<>(), new ArrayList<>(), new ArrayList<>());
+        long id = 1;
+        for (int minute = 0; minute < 4; minute++) {
+            // every subject gets posts at the same instants so that pages split ties
+            for (int subject = 0; subject < subjectFeeds.size(); subject++) {
+                subjectFeeds.get(subject).add(post(id++, NOON.plusMinutes(minute), subject));
+            }
+        }
+        subjectFeeds.forEach(subjectFeed -> subjectFeed.sort(FEED_ORDER));
+        List<PostListDto> expected = subjectFeeds.stream().flatMap(List::stream).sorted(FEED_ORDER).toList();
+
+        List<PostListDto> served = new ArrayList<>();
+        String cursor = null;
+        do {
+            KeysetCursor keysetCursor = cursor == null ? null : KeysetCursor.decode(cursor);
+            List<List<PostListDto>> pageSources = subjectFeeds.stream()
+                    .map(subjectFeed -> subjectFeed.stream().filter(post -> isAfter(post, keysetCursor)).limit(6).toList())
+                    .toList();
+            List<PostListDto> page = PostService.mergeFeeds(pageSources, 5);
+            served.addAll(page);
+
+            PostListDto last = page.get(page.size() - 1);
+            cursor = page.size() == 5 ? new KeysetCursor(last.getUpdatedAt(), last.getId()).encode() : null;
+        } while (cursor != null);
+
+        assertThat(served).containsExactlyElementsOf(expected);
+    }
+
+    // the keyset condition applied by the per-subject queries
+    private static boolean isAfter(PostListDto post, KeysetCursor keysetCursor) {
+        if (keysetCursor == null) {
+            return true;
+        }
+        int byDate = post.getUpdatedAt().compareTo(keysetCursor.getTimestamp());
+        return byDate < 0 || (byDate == 0 && post.getId() < keysetCursor.getId());
+    }
+
+    private static PostListDto post(long id, LocalDateTime updatedAt, long subjectId) {
+        return new PostListDto(id, "title " + id, "excerpt " + id, updatedAt, 0, 1L, "author", subjectId);
+    }
+}
@@ -0,0 +1,115 @@
+package com.openclassrooms.mddapi.services;
+
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import com.openclassrooms.mddapi.DTO.PostListDto;
+import com.openclassrooms.mddapi.caches.SubscriptionIndex;
+import com.openclassrooms.mddapi.events.PostCreatedEvent;
+import com.openclassrooms.mddapi.events.SubscriptionChangedEvent;
+import com.openclassrooms.mddapi.repositories.PostRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThatCode;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Checks how {@code FeedPushService} routes new posts to the open connections by subject, without a
+ * servlet container: events sent before a connection is bound to its response are buffered by the emitter.
+ */
+class FeedPushServiceTests {
+    private static final LocalDateTime NOW = LocalDateTime.of(2026, 2, 1, 10, 0);
+
+    private PostRepository postRepository;
+    private SubscriptionIndex subscriptionIndex;
+    private FeedPushService feedPushService;
+
+    @BeforeEach
+    void setUp() {
+        postRepository = mock(PostRepository.class);
+        subscriptionIndex = mock(SubscriptionIndex.class);
+        feedPushService = new FeedPushService(postRepository, subscriptionIndex, JsonMapper.builder().findAndAddModules().build(),
+                Duration.ofMinutes(1), Duration.ofSeconds(10), 4, 1);
+    }
+
+    @AfterEach
+    void tearDown() {
+        feedPushService.shutdown();
+    }
+
+    @Test
+    void postOfAnUnfollowedSubjectIsNotRead() {
+        when(subscriptionIndex.getSubjectIds(1L)).thenReturn(new long[] {10});
+        feedPushService.connect(1L);
+
+        feedPushService.onPostCreated(new PostCreatedEvent(100L, 20L, 2L, NOW));
+
+        verify(postRepository, never()).findFeedItemById(100L);
+    }
+
+    @Test
+    void postIsReadOnceForAllTheConnectionsOfItsSubject() {
+        when(subscriptionIndex.getSubjectIds(1L)).thenReturn(new long[] {10});
+        when(subscriptionIndex.getSubjectIds(2L)).thenReturn(new long[] {10, 20});
+        when(postRepository.findFeedItemById(100L)).thenReturn(Optional.of(post(100L, 10L)));
+        feedPushService.connect(1L);
+        feedPushService.connect(2L);
+
+        feedPushService.onPostCreated(new PostCreatedEvent(100L, 10L, 3L, NOW));
+
+        verify(postRepository, times(1)).findFeedItemById(100L);
+    }
+
+    @Test
+    void subscriptionChangesMoveTheConnectionBetweenSubjects() {
+        when(subscriptionIndex.getSubjectIds(1L)).thenReturn(new long[] {10});
+        when(postRepository.findFeedItemById(200L)).thenReturn(Optional.of(post(200L, 20L)));
+        feedPushService.connect(1L);
+
+        feedPushService.onSubscriptionChanged(new SubscriptionChangedEvent(1L, 10L, false));
+        feedPushService.onSubscriptionChanged(new SubscriptionChangedEvent(1L, 20L, true));
+        feedPushService.onPostCreated(new PostCreatedEvent(100L, 10L, 2L, NOW));
+        feedPushService.onPostCreated(new PostCreatedEvent(200L, 20L, 2L, NOW));
+
+        verify(postRepository, never()).findFeedItemById(100L);
+        verify(postRepository, times(1)).findFeedItemById(200L);
+    }
+
+    @Test
+    void reconnectingReplacesThePreviousConnection() {
+        when(subscriptionIndex.getSubjectIds(1L)).thenReturn(new long[] {10});
+        feedPushService.connect(1L);
+        feedPushService.connect(1L);
+
+        feedPushService.onSubscriptionChanged(new SubscriptionChangedEvent(1L, 10L, false));
+        feedPushService.onPostCreated(new PostCreatedEvent(100L, 10L, 2L, NOW));
+
+        verify(postRepository, never()).findFeedItemById(100L);
+    }
+
+    @Test
+    void heartbeatsCanBeSentRepeatedlyToManyConnections() {
+        for (long userId = 1; userId <= 50; userId++) {
+            when(subscriptionIndex.getSubjectIds(userId)).thenReturn(new long[] {userId});
+            feedPushService.connect(userId);
+        }
+
+        assertThatCode(() -> {
+            for (int i = 0; i < 20; i++) {
+                feedPushService.sendHeartbeats();
+            }
+        }).doesNotThrowAnyException();
+    }
+
+    private static PostListDto post(Long postId, Long subjectId) {
+        return new PostListDto(postId, "title", "excerpt", NOW, 0, 2L, "author", subjectId);
+    }
+}
@@ -0,0 +1,62 @@
+package com.openclassrooms.mddapi.services;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Base64;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Checks that keyset cursors survive the round trip through their opaque token and that
+ * malformed tokens are rejected with {@code IllegalArgumentException}.
+ */
+class KeysetCursorTests {
+
+    @Test
+    void decodedCursorHoldsTheEncodedPosition() {
+        LocalDateTime timestamp = LocalDateTime.of(2026, 3, 9, 14, 27, 5, 123_456_000);
+
+        KeysetCursor decoded = KeysetCursor.decode(new KeysetCursor(timestamp, 42L).encode());
+
+        assertThat(decoded.getTimestamp()).isEqualTo(timestamp);
+        assertThat(decoded.getId()).isEqualTo(42L);
+    }
+
+    @Test
+    void tokenIsUrlSafeWithoutPadding() {
+        String token = new KeysetCursor(LocalDateTime.of(2026, 3, 9, 14, 27), Long.MAX_VALUE).encode();
+
+        assertThat(token).matches("[A-Za-z0-9_-]+");
+    }
+
+    @Test
+    void tokenThatIsNotBase64IsRejected() {
+        assertThatThrownBy(() -> KeysetCursor.decode("not a cursor!"))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void tokenWithoutSeparatorIsRejected() {
+        assertThatThrownBy(() -> KeysetCursor.decode(token("2026-03-09T14:27")))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void tokenWithInvalidTimestampIsRejected() {
+        assertThatThrownBy(() -> KeysetCursor.decode(token("yesterday|42")))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void tokenWithInvalidIdIsRejected() {
+        assertThatThrownBy(() -> KeysetCursor.decode(token("2026-03-09T14:27|forty-two")))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private static String token(String raw) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,106 @@
+package com.openclassrooms.mddapi.services;
+
+import com.openclassrooms.mddapi.DTO.PostDto;
+import com.openclassrooms.mddapi.models.Comment;
+import com.openclassrooms.mddapi.models.Post;
+import com.openclassrooms.mddapi.models.Subject;
+import com.openclassrooms.mddapi.models.User;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfEnvironmentVariable;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.annotation.Transactional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Guards the number of SQL statements needed to build a post detail, which must not grow
+ * with the number of comments or comment authors. Needs the database configured by
+ * {@code DB_URL_ORION} and is skipped without it.
+ */
+@EnabledIfEnvironmentVariable(named = "DB_URL_ORION", matches = ".+")
+@SpringBootTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@Transactional
+class PostDetailStatementCountTests {
+    // PostService.loadPostDetail issues findPostVersion for the entity tag, findDetailById whose
+    // Post.detail fetch graph selects the content, author and subject with the post, then
+    // CommentService.findPageByPostId joining the comment authors
+    private static final long DETAIL_STATEMENTS = 3;
+
+    @Autowired
+    private PostService postService;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    }
+
+    @Test
+    void postDetailStatementCountDoesNotDependOnCommentAuthors() {
+        long singleAuthorStatements = countDetailStatements(createPostWithComments("single", 1));
+        long manyAuthorsStatements = countDetailStatements(createPostWithComments("many", 10));
+
+        assertThat(manyAuthorsStatements).isEqualTo(singleAuthorStatements);
+        assertThat(manyAuthorsStatements).isEqualTo(DETAIL_STATEMENTS);
+    }
+
+    private long countDetailStatements(Long postId) {
+        entityManager.flush();
+        entityManager.clear();
+        statistics.clear();
+
+        PostDto postDto = postService.findPostById(postId);
+
+        assertThat(postDto.getContent()).isNotEmpty();
+        assertThat(postDto.getCommentsDto()).allSatisfy(commentDto -> assertThat(commentDto.getUserDto().getName()).isNotEmpty());
+        return statistics.getPrepareStatementCount();
+    }
+
+    private Long createPostWithComments(String prefix, int commentAuthors) {
+        User author = createUser(prefix + "-author");
+
+        Subject subject = new Subject();
+        subject.setTitle(prefix + " subject");
+        subject.setDescription(prefix + " subject description");
+        entityManager.persist(subject);
+
+        Post post = new Post();
+        post.setTitle(prefix + " post");
+        post.setContent(prefix + " post content");
+        post.setExcerpt(prefix + " post content");
+        post.setUser(author);
+        post.setSubject(subject);
+        entityManager.persist(post);
+
+        for (int i = 0; i < commentAuthors; i++) {
+            Comment comment = new Comment();
+            comment.setMessage(prefix + " comment " + i);
+            comment.setUser(createUser(prefix + "-commenter-" + i));
+            comment.setPost(post);
+            entityManager.persist(comment);
+        }
+        return post.getId();
+    }
+
+    private User createUser(String name) {
+        User user = new User();
+        user.setName("statement-count-" + name);
+        user.setEmail("statement-count-" + name + "@test.local");
+        user.setPassword("password");
+        entityManager.persist(user);
+        return user;
+    }
+}
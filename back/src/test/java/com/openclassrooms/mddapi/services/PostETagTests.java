@@ -0,0 +1,72 @@
+package com.openclassrooms.mddapi.services;
+
+import com.openclassrooms.mddapi.DTO.PostListDto;
+import com.openclassrooms.mddapi.DTO.PostPageDto;
+import com.openclassrooms.mddapi.caches.FeedCache;
+import com.openclassrooms.mddapi.caches.PostDetailCache;
+import com.openclassrooms.mddapi.repositories.ContentVersion;
+import com.openclassrooms.mddapi.repositories.PostRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.ApplicationEventPublisher;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Checks the entity tags of the feed pages and post details, without a database.
+ */
+class PostETagTests {
+    private static final LocalDateTime NOON = LocalDateTime.of(2026, 1, 15, 12, 0);
+
+    private PostRepository postRepository;
+    private PostDetailCache postDetailCache;
+    private PostService postService;
+
+    @BeforeEach
+    void setUp() {
+        postRepository = mock(PostRepository.class);
+        postDetailCache = mock(PostDetailCache.class);
+        postService = new PostService(postRepository, mock(SubscriptionService.class), mock(UserService.class),
+                mock(SubjectService.class), mock(CommentService.class), mock(TimelineService.class), mock(FeedCache.class),
+                postDetailCache, mock(ApplicationEventPublisher.class), 8);
+    }
+
+    @Test
+    void feedTagChangesWithTheCommentCountAndTheAuthorName() {
+        String eTag = postService.getSubscribedPostsETag(page(post(1, 0, "alice")));
+
+        assertThat(postService.getSubscribedPostsETag(page(post(1, 0, "alice")))).isEqualTo(eTag);
+        assertThat(postService.getSubscribedPostsETag(page(post(1, 1, "alice")))).isNotEqualTo(eTag);
+        assertThat(postService.getSubscribedPostsETag(page(post(1, 0, "alicia")))).isNotEqualTo(eTag);
+    }
+
+    @Test
+    void postTagIsReadWithoutLoadingTheDetail() {
+        ContentVersion contentVersion = mock(ContentVersion.class);
+        when(contentVersion.toETag("post-7")).thenReturn("post-7-1-0");
+        when(postRepository.findPostVersion(7L)).thenReturn(Optional.of(contentVersion));
+
+        assertThat(postService.getPostETag(7L)).isEqualTo("post-7-1-0");
+        verify(postDetailCache, never()).get(any(), any());
+        verify(postRepository, never()).findDetailById(7L);
+    }
+
+    private static PostPageDto page(PostListDto post) {
+        PostPageDto postPageDto = new PostPageDto();
+        postPageDto.setPostsListDto(List.of(post));
+        return postPageDto;
+    }
+
+    private static PostListDto post(long id, long commentCount, String author) {
+        return new PostListDto(id, "title", "excerpt", NOON, commentCount, 2L, author, 3L);
+    }
+}
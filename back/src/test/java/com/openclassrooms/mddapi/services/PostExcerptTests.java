@@ -0,0 +1,36 @@
+package com.openclassrooms.mddapi.services;
+
+import com.openclassrooms.mddapi.models.Post;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Checks the list preview built from a post content.
+ */
+class PostExcerptTests {
+
+    @Test
+    void contentUpToTheExcerptLengthIsKeptAsIs() {
+        String content = "a".repeat(Post.EXCERPT_LENGTH);
+
+        assertThat(PostService.buildExcerpt(content)).isEqualTo(content);
+        assertThat(PostService.buildExcerpt("short")).isEqualTo("short");
+    }
+
+    @Test
+    void longerContentIsCutAndEndsWithAnEllipsis() {
+        String content = "a".repeat(Post.EXCERPT_LENGTH) + "b";
+
+        assertThat(PostService.buildExcerpt(content))
+                .isEqualTo("a".repeat(Post.EXCERPT_LENGTH) + Post.EXCERPT_ELLIPSIS);
+    }
+
+    @Test
+    void surrogatePairAtTheLimitIsNotSplit() {
+        // the emoji takes two chars, the first of which is the last one within the limit
+        String content = "a".repeat(Post.EXCERPT_LENGTH - 1) + "😀" + "tail";
+
+        assertThat(PostService.buildExcerpt(content)).isEqualTo("a".repeat(Post.EXCERPT_LENGTH - 1) + Post.EXCERPT_ELLIPSIS);
+    }
+}
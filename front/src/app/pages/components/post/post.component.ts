@@ -2,9 +2,10 @@ import { Component, OnInit } from '@angular/core';
 import { FormBuilder, FormGroup, Validators } from '@angular/forms';
 import { ActivatedRoute } from '@angular/router';
 
-import { BehaviorSubject, Observable, switchMap } from 'rxjs';
+import { BehaviorSubject, Observable, switchMap, take, tap } from 'rxjs';
 
 import { Comment as CommentInterface } from '@pages/interfaces/Comment.interface';
+import { CommentPage } from '@pages/interfaces/CommentPage.interface';
 import { Post } from '@pages/interfaces/Post.interface';
 import { PostsService } from '@pages/services/posts.service';
 
@@ -18,38 +19,65 @@ export class PostComponent implements OnInit {
   commentForm!: FormGroup;
   commentBehaviorSubject = new BehaviorSubject<CommentInterface[]>([]);
   postId!: number;
-  useCommentSubject = false;
+  hasMoreComments = false;
+  private commentsCursor: string | null = null;
 
   readonly labelsForInterface = {
     comments: 'Commentaires',
     contentComment: 'Contenu du commentaire',
     ph_inputComment: 'Écrire ici votre commentaire',
+    loadMore: 'Voir plus'
   };
 
   constructor( private route: ActivatedRoute, private postsService: PostsService, private formBuilder: FormBuilder ) { }
 
   ngOnInit(): void {
     this.postId = Number(this.route.snapshot.params['id']);
-    this.post$ = this.postsService.getPostById(this.postId);
+    // The post detail carries the first page of comments; the following ones are fetched with its cursor
+    this.post$ = this.postsService.getPostById(this.postId).pipe(
+      tap((post: Post) => {
+        this.commentBehaviorSubject.next(post.comments ?? []);
+        this.commentsCursor = post.commentsCursor ?? null;
+        this.hasMoreComments = post.hasMoreComments ?? false;
+      })
+    );
     this.initCommentForm();
   }
 
+  loadMoreComments(): void {
+    this.loadComments().subscribe();
+  }
+
   private initCommentForm(): void {
     this.commentForm = this.formBuilder.group({
       message: ['', [Validators.required, Validators.minLength(3)]]
     });
   }
 
+  // Comments are sorted by creation date ascending by the API: each page is appended after the loaded ones
+  private loadComments(): Observable<CommentPage | null> {
+    return this.postsService.getCommentsForPost(this.postId, this.commentsCursor).pipe(
+      take(1),
+      tap((page: CommentPage | null) => {
+        if (!page) {
+          this.hasMoreComments = false;
+          return;
+        }
+        this.commentsCursor = page.nextCursor;
+        this.hasMoreComments = page.hasMore;
+        this.commentBehaviorSubject.next([...this.commentBehaviorSubject.value, ...page.comments]);
+      })
+    );
+  }
+
   onMessageSubmit(): void {
     if (this.commentForm.valid) {
       const message = this.commentForm.value.message;
       
       this.postsService.createMessage(message, this.postId).pipe(
-        switchMap(() => this.postsService.getCommentsForPost(this.postId))
+        switchMap(() => this.loadComments())
       ).subscribe({
-        next: (comments: CommentInterface[]) => {
-          this.useCommentSubject = true;
-          this.commentBehaviorSubject.next(comments);
+        next: () => {
           this.commentForm.reset();
         },
         error: (error) => {
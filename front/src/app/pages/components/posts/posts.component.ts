@@ -1,9 +1,11 @@
-import { Component, OnInit } from '@angular/core';
+import { Component, OnDestroy, OnInit } from '@angular/core';
 import { Router } from '@angular/router';
 
-import { BehaviorSubject, map, take } from 'rxjs';
+import { BehaviorSubject, catchError, EMPTY, filter, interval, map, Subject, switchMap, take, takeUntil, tap } from 'rxjs';
 
 import { Post } from '@pages/interfaces/Post.interface';
+import { PostPage } from '@pages/interfaces/PostPage.interface';
+import { PostDelta } from '@pages/interfaces/PostDelta.interface';
 import { PostsService } from '@pages/services/posts.service';
 
 @Component({
@@ -12,21 +14,34 @@ import { PostsService } from '@pages/services/posts.service';
   styleUrls: ['./posts.component.scss']
 })
 
-export class PostsComponent implements OnInit {
+export class PostsComponent implements OnInit, OnDestroy {
+
+  private static readonly POLLING_INTERVAL_MS = 60000;
 
   private postsBehaviorSubject = new BehaviorSubject<Post[]>([]);
   public posts$ = this.postsBehaviorSubject.asObservable();
   public sortByDateAscending: boolean = true;
+  public nextCursor: string | null = null;
+  private highWaterMark: string | null = null;
+  private destroy$ = new Subject<void>();
 
   readonly labelsForInterface = {
     createPost: 'Créer un article',
-    sortBy: 'Trier par'
+    sortBy: 'Trier par',
+    loadMore: 'Voir plus',
+    comments: 'commentaire(s)'
   };
 
   constructor(private postsService: PostsService, private router: Router) { }
 
   ngOnInit(): void {
     this.loadPosts();
+    this.pollNewPosts();
+  }
+
+  ngOnDestroy(): void {
+    this.destroy$.next();
+    this.destroy$.complete();
   }
 
   clickOnPost(postId: number): void {
@@ -49,20 +64,49 @@ export class PostsComponent implements OnInit {
     this.postsBehaviorSubject.next(sortedPosts);
   }
 
-  private loadPosts(): void {
-    this.postsService.getFeed().pipe(
+  loadMorePosts(): void {
+    if (this.nextCursor) {
+      this.loadPosts(this.nextCursor);
+    }
+  }
+
+  // Posts are sorted by updatedAt date descending by the API, page after page
+  private loadPosts(cursor: string | null = null): void {
+    this.postsService.getFeed(cursor).pipe(
       take(1),
-      map((posts: Post[]) => {
-        if(!posts) return [];
-        // Sort posts by updatedAt date descending
-        posts.sort((a, b) => new Date(b.updatedAt).getTime() - new Date(a.updatedAt).getTime());
-        posts.forEach(post => {
-          post.content = post.content.substring(0, 300) + '...';
-        });
-        return posts;
+      map((page: PostPage | null) => {
+        this.nextCursor = page?.nextCursor ?? null;
+        if (!cursor) {
+          this.highWaterMark = page?.highWaterMark ?? null;
+        }
+        if(!page || !page.posts) return [];
+        return page.posts;
       })
     ).subscribe(posts => {
-      this.postsBehaviorSubject.next(posts);
+      const currentPosts = cursor ? this.postsBehaviorSubject.value : [];
+      this.postsBehaviorSubject.next([...currentPosts, ...posts]);
+    });
+  }
+
+  // Only posts created or updated since the last known one are fetched; they replace their previous version on top of the list
+  // An empty feed has no high-water mark yet: its first page is read again until it gets one
+  private pollNewPosts(): void {
+    interval(PostsComponent.POLLING_INTERVAL_MS).pipe(
+      tap(() => {
+        if (!this.highWaterMark) {
+          this.loadPosts();
+        }
+      }),
+      filter(() => !!this.highWaterMark),
+      switchMap(() => this.postsService.getFeedSince(this.highWaterMark!).pipe(catchError(() => EMPTY))),
+      filter((delta: PostDelta | null): delta is PostDelta => !!delta && delta.posts.length > 0),
+      takeUntil(this.destroy$)
+    ).subscribe(delta => {
+      this.highWaterMark = delta.highWaterMark;
+      const newPosts = [...delta.posts].reverse();
+      const newPostIds = new Set(newPosts.map(post => post.id));
+      const currentPosts = this.postsBehaviorSubject.value.filter(post => !newPostIds.has(post.id));
+      this.postsBehaviorSubject.next(this.sortByDateAscending ? [...newPosts, ...currentPosts] : [...currentPosts, ...delta.posts]);
     });
   }
 
@@ -28,7 +28,7 @@ export class ProfileComponent implements OnInit {
     unsubscribe: 'Se désabonner',
     ph_name: 'Nom d\'utilisateur',
     ph_email: 'E-mail',
-    ph_password: 'Mot de passe',
+    ph_password: 'Nouveau mot de passe (facultatif)',
     invalidCredentials: 'La modification a échouée'
   }
 
@@ -53,7 +53,11 @@ export class ProfileComponent implements OnInit {
   //Methods
     onSubmitForm(): void {
       if (this.profileForm.valid) {
-        const registerRequest = this.profileForm.value as RegisterRequest;
+        const registerRequest: Partial<RegisterRequest> = { ...this.profileForm.value };
+        // the password is only sent when a new one is typed, so that it is not rehashed for nothing
+        if (!registerRequest.password) {
+          delete registerRequest.password;
+        }
         this.authService.updateUser(registerRequest).pipe(take(1)).subscribe({
           next: (response: AuthSuccess) => {
             localStorage.setItem('token', response.token);
@@ -111,7 +115,6 @@ export class ProfileComponent implements OnInit {
             name: ['', [Validators.required, Validators.maxLength(80)]],
             email: ['', [Validators.required, Validators.email, Validators.maxLength(255)]],
             password: ['', [
-              Validators.required,
               Validators.minLength(8),
               Validators.pattern(/^(?=.*[A-Z])(?=.*[a-z])(?=.*\d)(?=.*[;,:/'(){}<>§*µ£€@#$%^&+=!]).{8,}$/)
             ]]
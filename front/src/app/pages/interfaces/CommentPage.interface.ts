@@ -0,0 +1,7 @@
+import { Comment } from "@pages/interfaces/Comment.interface";
+
+export interface CommentPage {
+    comments: Comment[];
+    nextCursor: string | null;
+    hasMore: boolean;
+}
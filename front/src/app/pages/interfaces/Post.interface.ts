@@ -6,10 +6,14 @@ import { Comment as CommentPost } from "@pages/interfaces/Comment.interface";
 export interface Post {
     id: number;
     title: string;
-    content: string;
+    content?: string;
+    excerpt?: string;
     createdAt: Date;
     updatedAt: Date;
+    commentCount?: number;
     user: User;
     subject: SubjectForPost;
     comments?: CommentPost[];
+    commentsCursor?: string | null;
+    hasMoreComments?: boolean;
 }
\ No newline at end of file
@@ -0,0 +1,7 @@
+import { Post } from "@pages/interfaces/Post.interface";
+
+export interface PostDelta {
+    posts: Post[];
+    highWaterMark: string | null;
+    hasMore: boolean;
+}
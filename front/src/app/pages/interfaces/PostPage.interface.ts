@@ -0,0 +1,7 @@
+import { Post } from "@pages/interfaces/Post.interface";
+
+export interface PostPage {
+    posts: Post[];
+    nextCursor: string | null;
+    highWaterMark: string | null;
+}
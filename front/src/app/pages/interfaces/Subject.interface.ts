@@ -1,8 +1,7 @@
-import { Subscription as SubscriptionForUser } from "@pages/interfaces/Subscription.interface";
-
 export interface Subject {
     id: number;
     title: string;
     description: string;
-    subscriptionByUser?: SubscriptionForUser | null;
+    subscriberCount?: number;
+    isSubscribed?: boolean;
 }
\ No newline at end of file
@@ -29,8 +29,8 @@ export class AuthService {
         );
     }
 
-    public updateUser(formValue: RegisterRequest): Observable<AuthSuccess> {
-        return this.httpClient.put<AuthSuccess>(`${environment.apiUrl}/user`, formValue).pipe(
+    public updateUser(formValue: Partial<RegisterRequest>): Observable<AuthSuccess> {
+        return this.httpClient.patch<AuthSuccess>(`${environment.apiUrl}/user`, formValue).pipe(
             catchError((error) => {
                 if ([400, 401, 403].includes(error.status)) {
                     // Handle 401/403 errors
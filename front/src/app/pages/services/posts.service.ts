@@ -1,12 +1,14 @@
-import { HttpClient } from "@angular/common/http";
+import { HttpClient, HttpParams } from "@angular/common/http";
 import { Injectable } from "@angular/core";
 
 import { catchError, Observable} from "rxjs";
 
 import { Post } from "@pages/interfaces/Post.interface";
+import { PostPage } from "@pages/interfaces/PostPage.interface";
+import { PostDelta } from "@pages/interfaces/PostDelta.interface";
 import { NewPost } from "@pages/interfaces/NewPost.interface";
 import { CreatedPostResponse } from "@pages/interfaces/CreatedPostResponse.interface";
-import { Comment as CommentInterfaces } from "@pages/interfaces/Comment.interface";
+import { CommentPage } from "@pages/interfaces/CommentPage.interface";
 
 import { environment } from "@env/environment";
 
@@ -16,8 +18,12 @@ import { environment } from "@env/environment";
 export class PostsService {
     constructor( private http: HttpClient ) { }
 
-    getFeed(): Observable<Post[]> {
-        return this.http.get<Post[]>(`${environment.apiUrl}/posts/subscribed`).pipe(
+    getFeed(cursor: string | null = null): Observable<PostPage | null> {
+        let params = new HttpParams();
+        if (cursor) {
+            params = params.set('cursor', cursor);
+        }
+        return this.http.get<PostPage | null>(`${environment.apiUrl}/posts/subscribed`, { params }).pipe(
             catchError((error) => {
                 if ([400, 401, 403].includes(error.status)) {
                     console.error('Error fetching subscribed posts for user:', error);
@@ -27,6 +33,18 @@ export class PostsService {
         );
     }
 
+    getFeedSince(highWaterMark: string): Observable<PostDelta | null> {
+        const params = new HttpParams().set('since', highWaterMark);
+        return this.http.get<PostDelta | null>(`${environment.apiUrl}/posts/subscribed/since`, { params }).pipe(
+            catchError((error) => {
+                if ([400, 401, 403].includes(error.status)) {
+                    console.error('Error fetching new posts for user:', error);
+                }
+                throw error;
+            })
+        );
+    }
+
     getPostById(postId: number): Observable<Post> {
         return this.http.get<Post>(`${environment.apiUrl}/posts/${postId}`).pipe(
             catchError((error) => {
@@ -38,8 +56,12 @@ export class PostsService {
         );
     }
 
-    getCommentsForPost(postId: number): Observable<CommentInterfaces[]> {
-        return this.http.get<CommentInterfaces[]>(`${environment.apiUrl}/posts/${postId}/comments`).pipe(
+    getCommentsForPost(postId: number, cursor: string | null = null): Observable<CommentPage | null> {
+        let params = new HttpParams();
+        if (cursor) {
+            params = params.set('cursor', cursor);
+        }
+        return this.http.get<CommentPage | null>(`${environment.apiUrl}/posts/${postId}/comments`, { params }).pipe(
             catchError((error) => {
                 if ([400, 401, 403].includes(error.status)) {
                     console.error('Error fetching comments:', error);
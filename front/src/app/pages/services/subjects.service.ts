@@ -23,4 +23,15 @@ export class SubjectsService {
             })
         );
     }
+
+    getAllWithSubscriptionState(): Observable<SubjectInterface[]> {
+        return this.http.get<SubjectInterface[]>(`${environment.apiUrl}/subjects/user`).pipe(
+            catchError((error) => {
+                if ([400, 401, 403].includes(error.status)) {
+                    console.error('Error fetching subjects:', error);
+                }
+                throw error;
+            })
+        );
+    }
 }
\ No newline at end of file
@@ -1,12 +1,11 @@
 import { Component, Input, OnDestroy, OnInit } from '@angular/core';
 
-import { BehaviorSubject, map, Observable, Subject, switchMap, take, takeUntil } from 'rxjs';
+import { BehaviorSubject, map, Subject, take, takeUntil } from 'rxjs';
 
 import { SubjectsService } from '@pages/services/subjects.service';
 import { Subject as SubjectInterface } from '@pages/interfaces/Subject.interface';
 import { SubscriptionService } from '@pages/services/subscription.service';
 import { AuthService } from '@pages/services/auth.service';
-import { Subscription } from '@pages/interfaces/Subscription.interface';
 
 @Component({
   selector: 'app-subjects',
@@ -17,7 +16,6 @@ export class SubjectsComponent implements OnInit, OnDestroy {
 
   private subjectsBehaviorSubject = new BehaviorSubject<SubjectInterface[]>([]);
   public subjects$ = this.subjectsBehaviorSubject.asObservable();
-  public subscriptions$!: Observable<Subscription[]>;
   private destroy$ = new Subject<void>();
 
   readonly labelsForInterface = {
@@ -70,31 +68,25 @@ export class SubjectsComponent implements OnInit, OnDestroy {
   }
 
   isSubscribed(subject: SubjectInterface): boolean {
-    return !!(subject.subscriptionByUser);
+    return !!subject.isSubscribed;
   }
 
   private loadSubjects(): void {
-    this.subscriptionService.getAllSubscribedSubjectsForUser().pipe(
+    // the subscription state comes with each subject, so a single request is needed
+    this.subjectsService.getAllWithSubscriptionState().pipe(
       take(1),
-      switchMap((subscriptions: Subscription[]) => {
-        const userSubscriptions = (subscriptions && subscriptions.length > 0) ? subscriptions : [];
-        return this.subjectsService.getAll().pipe(
-          take(1),
-          map((subjects: SubjectInterface[]) => {
-            if(this.isProfileView) {
-              subjects = subjects.filter(
-                subject => userSubscriptions.some(subscription => subscription.subjectId === subject.id));
-            }
-            else {
-              subjects.forEach(subject => {
-                subject.subscriptionByUser = userSubscriptions.find(subscription => subscription.subjectId === subject.id) || null;
-                subject.description = subject.description.substring(0, 200) + '...';
-              });
-            }
-
-            return subjects;
-          })
-        );
+      map((subjects: SubjectInterface[] | null) => {
+        subjects = subjects ?? [];
+        if(this.isProfileView) {
+          subjects = subjects.filter(subject => subject.isSubscribed);
+        }
+        else {
+          subjects.forEach(subject => {
+            subject.description = subject.description.substring(0, 200) + '...';
+          });
+        }
+
+        return subjects;
       })
     ).subscribe(subjects => {
       this.subjectsBehaviorSubject.next(subjects);
@@ -103,8 +95,7 @@ export class SubjectsComponent implements OnInit, OnDestroy {
 
   /** 
    * Optimistic Method
-   * subscriptionByUser: isSubscribed ? { id: 0, subjectId, userId: 0 } : null <= It's a substitute for a real subscription object, 
-   * used while waiting for the API response that will return the correct data.
+   * isSubscribed is flipped while waiting for the API response.
    * This allows transitioning from the "subscribed" state to the "unsubscribed" state or vice versa, without any flash issues.
    * */ 
   private updateOptimisticSubjectSubscription(subjectId: number, isSubscribed: boolean): void {
@@ -117,7 +108,7 @@ export class SubjectsComponent implements OnInit, OnDestroy {
 
         return {
           ...subject,
-          subscriptionByUser: isSubscribed ? { id: 0, subjectId, userId: 0 } : null
+          isSubscribed
         };
       }
       return subject;